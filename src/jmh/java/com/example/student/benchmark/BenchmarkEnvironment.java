@@ -0,0 +1,54 @@
+package com.example.student.benchmark;
+
+import com.example.student.StudentApplication;
+import com.example.student.support.EmbeddedRedisServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+
+/**
+ * Boots the real application against in-process stand-ins: an H2 in-memory database and
+ * {@link EmbeddedRedisServer}. Numbers are only comparable between runs on the same machine.
+ */
+final class BenchmarkEnvironment implements AutoCloseable {
+
+    private final EmbeddedRedisServer redis;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment(EmbeddedRedisServer redis, ConfigurableApplicationContext context) {
+        this.redis = redis;
+        this.context = context;
+    }
+
+    static BenchmarkEnvironment start() throws IOException {
+        EmbeddedRedisServer redis = EmbeddedRedisServer.start();
+        // passed as command-line arguments so they win over application.properties
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentApplication.class)
+                .run("--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.redis.host=localhost",
+                        "--spring.redis.port=" + redis.getPort());
+        return new BenchmarkEnvironment(redis, context);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        redis.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.student.benchmark;
+
+import com.example.student.config.StudentCacheSerializer;
+import com.example.student.entity.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentCacheSerializerBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    private StudentCacheSerializer.Format format;
+
+    private StudentCacheSerializer serializer;
+    private Student student;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        serializer = new StudentCacheSerializer(format);
+        student = new Student();
+        student.setId(123_456L);
+        student.setName("Jane Doe");
+        student.setAge(21);
+        encoded = serializer.serialize(student);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(student);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
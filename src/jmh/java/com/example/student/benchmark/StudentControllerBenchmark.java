@@ -0,0 +1,77 @@
+package com.example.student.benchmark;
+
+import com.example.student.dtos.StudentDto;
+import com.example.student.service.StudentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Request dispatch and JSON rendering in {@code StudentController}, driven through MockMvc so
+ * no socket or servlet container is involved. Single reads are served from the near cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class StudentControllerBenchmark {
+
+    private BenchmarkEnvironment environment;
+    private MockMvc mockMvc;
+    private Long id;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        environment = BenchmarkEnvironment.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) environment.getContext()).build();
+        List<StudentDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            StudentDto dto = new StudentDto();
+            dto.setName("Student " + i);
+            dto.setAge(18 + i % 10);
+            dtos.add(dto);
+        }
+        id = environment.getBean(StudentService.class).saveStudentsBatchAsync(dtos).join().get(0).getId();
+        getStudent();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public String getStudent() throws Exception {
+        MvcResult pending = mockMvc.perform(get("/students/{id}/student", id)).andReturn();
+        return mockMvc.perform(asyncDispatch(pending)).andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String getPageOfHundred() throws Exception {
+        return mockMvc.perform(get("/students/page").param("limit", "100"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
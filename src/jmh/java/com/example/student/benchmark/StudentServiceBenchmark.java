@@ -0,0 +1,122 @@
+package com.example.student.benchmark;
+
+import com.example.student.dtos.StudentDto;
+import com.example.student.entity.Student;
+import com.example.student.service.StudentNearCache;
+import com.example.student.service.StudentService;
+import com.example.student.utils.Constant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write paths of {@link StudentService} through the real Spring wiring. Reads pick a
+ * random id from a pre-loaded set; the redis and database variants evict the faster tiers first,
+ * so they include the cost of that eviction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class StudentServiceBenchmark {
+
+    private static final int STUDENTS = 1_000;
+
+    private BenchmarkEnvironment environment;
+    private StudentService studentService;
+    private StudentNearCache nearCache;
+    private RedisTemplate<String, Object> redisTemplate;
+    private final List<Long> ids = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() throws IOException {
+        environment = BenchmarkEnvironment.start();
+        studentService = environment.getBean(StudentService.class);
+        nearCache = environment.getBean(StudentNearCache.class);
+        redisTemplate = environment.getContext().getBean("redisTemplate", RedisTemplate.class);
+        List<StudentDto> dtos = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            dtos.add(dto(i));
+        }
+        for (Student student : studentService.saveStudentsBatchAsync(dtos).join()) {
+            ids.add(student.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        environment.close();
+    }
+
+    @Benchmark
+    public Student readNearCacheHit() {
+        return studentService.getStudentByIdAsync(randomId()).join();
+    }
+
+    @Benchmark
+    public Student readRedisHit() {
+        Long id = randomId();
+        nearCache.evictLocal(id);
+        return studentService.getStudentByIdAsync(id).join();
+    }
+
+    @Benchmark
+    public Student readDatabaseMiss() {
+        Long id = randomId();
+        nearCache.evictLocal(id);
+        redisTemplate.delete(Constant.STUDENT_KEY_PREFIX + id);
+        return studentService.getStudentByIdAsync(id).join();
+    }
+
+    @Benchmark
+    public Student create() {
+        return studentService.saveStudentAsync(dto(ThreadLocalRandom.current().nextInt(100))).join();
+    }
+
+    @Benchmark
+    public Student update() {
+        Long id = randomId();
+        Student student = new Student();
+        student.setName("Updated " + id);
+        student.setAge(ThreadLocalRandom.current().nextInt(18, 30));
+        return studentService.updateStudentAsync(id, student).join();
+    }
+
+    @Benchmark
+    public Boolean createThenDelete() {
+        Student created = studentService.saveStudentAsync(dto(1)).join();
+        return studentService.deleteStudentAsync(created.getId()).join();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static StudentDto dto(int i) {
+        StudentDto dto = new StudentDto();
+        dto.setName("Student " + i);
+        dto.setAge(18 + i % 10);
+        return dto;
+    }
+}
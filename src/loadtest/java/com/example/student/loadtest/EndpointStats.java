@@ -0,0 +1,95 @@
+package com.example.student.loadtest;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one endpoint during one phase. Latency runs from the time the request
+ * was scheduled to start, not the time it was sent, so a stalled server is charged for every
+ * request that queued up behind the stall instead of hiding it (coordinated omission).
+ */
+final class EndpointStats {
+
+    private final Histogram latencies;
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    EndpointStats() {
+        this(new ConcurrentHistogram(3));
+    }
+
+    private EndpointStats(Histogram latencies) {
+        this.latencies = latencies;
+    }
+
+    /**
+     * @param outcome the status code, or the exception class name when no response arrived
+     */
+    void record(long intendedNanos, long completedNanos, String outcome, boolean success) {
+        latencies.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(completedNanos - intendedNanos)));
+        (success ? succeeded : failed).increment();
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    static EndpointStats combine(Iterable<EndpointStats> all) {
+        EndpointStats total = new EndpointStats(new Histogram(3));
+        for (EndpointStats stats : all) {
+            total.latencies.add(stats.latencies);
+            total.succeeded.add(stats.succeeded.sum());
+            total.failed.add(stats.failed.sum());
+            stats.outcomes.forEach((outcome, count) ->
+                    total.outcomes.computeIfAbsent(outcome, key -> new LongAdder()).add(count.sum()));
+        }
+        return total;
+    }
+
+    long getRequests() {
+        return latencies.getTotalCount();
+    }
+
+    /**
+     * Counts, throughput and latency percentiles in milliseconds. The histogram itself is included
+     * in HdrHistogram's compressed encoding, base64, so runs can be compared beyond the percentiles
+     * listed here.
+     */
+    ObjectNode toJson(double seconds) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("requests", latencies.getTotalCount());
+        node.put("succeeded", succeeded.sum());
+        node.put("failed", failed.sum());
+        node.put("throughput", round(succeeded.sum() / seconds));
+        ObjectNode latency = node.putObject("latencyMs");
+        latency.put("p50", millis(latencies.getValueAtPercentile(50)));
+        latency.put("p90", millis(latencies.getValueAtPercentile(90)));
+        latency.put("p99", millis(latencies.getValueAtPercentile(99)));
+        latency.put("p99.9", millis(latencies.getValueAtPercentile(99.9)));
+        latency.put("max", millis(latencies.getMaxValue()));
+        latency.put("mean", round(latencies.getMean() / 1000.0));
+        ObjectNode statuses = node.putObject("outcomes");
+        new TreeMap<>(outcomes).forEach((outcome, count) -> statuses.put(outcome, count.sum()));
+        ByteBuffer buffer = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+        int length = latencies.encodeIntoCompressedByteBuffer(buffer);
+        node.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        return node;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,290 @@
+package com.example.student.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load against the {@code /students} endpoints.
+ * <p>
+ * Requests start on a fixed schedule at {@code rate} per second whether or not earlier ones have
+ * finished, the way independent clients arrive, and each latency is measured from its scheduled
+ * start. If the generator itself falls behind, the late requests are still charged from their
+ * scheduled time and the largest lag is reported so an overloaded generator is visible.
+ * <p>
+ * Unless {@code target} is given, the application is booted in-process against H2 and the
+ * embedded Redis. Results go to {@code output} as JSON; pass an earlier file as {@code baseline}
+ * to print the change per endpoint.
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="rate=2000 mix=read:60,hot:30,write:10"
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="baseline=before.json --spring.profiles.active=reactive"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private final LoadTestOptions options;
+    private final URI base;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final SplittableRandom random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final List<Long> ids = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private long maxLagNanos;
+    private int writes;
+
+    private LoadTest(LoadTestOptions options, URI base) {
+        this.options = options;
+        this.base = base;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.random = new SplittableRandom(options.seed);
+        this.operations = options.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        LoadTestEnvironment environment = options.target == null
+                ? LoadTestEnvironment.start(options.applicationArgs) : null;
+        try {
+            URI base = environment == null ? options.target : environment.getBaseUri();
+            new LoadTest(options, base).run();
+        } finally {
+            if (environment != null) {
+                environment.close();
+            }
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        seed();
+        System.out.printf("Seeded %d students, warming up for %ds at %d req/s%n",
+                ids.size(), options.warmup.toSeconds(), options.rate);
+        if (!options.warmup.isZero()) {
+            runPhase(options.warmup.toNanos());
+        }
+        maxLagNanos = 0;
+        Instant startedAt = Instant.now();
+        System.out.printf("Measuring for %ds%n", options.duration.toSeconds());
+        Map<Operation, EndpointStats> stats = runPhase(options.duration.toNanos());
+
+        ObjectNode result = report(startedAt, stats);
+        Files.createDirectories(options.output.toAbsolutePath().getParent());
+        objectMapper.writeValue(options.output.toFile(), result);
+        print(result, options.baseline == null ? null : objectMapper.readTree(options.baseline.toFile()));
+        System.out.println("Results written to " + options.output.toAbsolutePath());
+    }
+
+    private void seed() throws IOException, InterruptedException {
+        for (int offset = 0; offset < options.students; offset += SEED_BATCH_SIZE) {
+            ArrayNode batch = objectMapper.createArrayNode();
+            for (int i = offset; i < Math.min(options.students, offset + SEED_BATCH_SIZE); i++) {
+                batch.addObject().put("name", "Student " + i).put("age", 18 + i % 10);
+            }
+            HttpResponse<String> response = client.send(post("/students/batch", batch.toString()),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            for (JsonNode student : objectMapper.readTree(response.body())) {
+                ids.add(student.get("id").asLong());
+            }
+        }
+    }
+
+    /**
+     * Starts requests on schedule for {@code nanos}, then waits for the stragglers. Requests still
+     * open after the client timeout fail with {@code HttpTimeoutException} and are counted as such.
+     */
+    private Map<Operation, EndpointStats> runPhase(long nanos) throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new EndpointStats());
+        }
+        double interval = 1_000_000_000.0 / options.rate;
+        long start = System.nanoTime();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * interval);
+            if (intended - start >= nanos) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxLagNanos = Math.max(maxLagNanos, -wait);
+            }
+            Operation operation = nextOperation();
+            EndpointStats endpoint = stats.get(operation);
+            inFlight.incrementAndGet();
+            client.sendAsync(request(operation), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        long completed = System.nanoTime();
+                        if (ex != null) {
+                            Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+                            endpoint.record(intended, completed, cause.getClass().getSimpleName(), false);
+                        } else {
+                            int status = response.statusCode();
+                            boolean success = status / 100 == 2 || status == 304;
+                            endpoint.record(intended, completed, Integer.toString(status), success);
+                        }
+                        inFlight.decrementAndGet();
+                    });
+        }
+        long deadline = System.nanoTime() + options.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private Operation nextOperation() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; ; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+    }
+
+    private HttpRequest request(Operation operation) {
+        return switch (operation) {
+            case READ -> get("/students/" + ids.get(random.nextInt(ids.size())) + "/student");
+            case HOT -> get("/students/" + ids.get(random.nextInt(options.hotKeys)) + "/student");
+            case WRITE -> HttpRequest.newBuilder(base.resolve("/students/" + ids.get(random.nextInt(ids.size()))
+                            + "/update-student"))
+                    .timeout(options.timeout)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(studentJson(), StandardCharsets.UTF_8))
+                    .build();
+            case CREATE -> post("/students/add-student", studentJson());
+        };
+    }
+
+    private String studentJson() {
+        int n = writes++;
+        return "{\"name\":\"Load " + n + "\",\"age\":" + (18 + n % 10) + "}";
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(options.timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(options.timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private ObjectNode report(Instant startedAt, Map<Operation, EndpointStats> stats) {
+        double seconds = options.duration.toNanos() / 1e9;
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("commit", commit());
+        result.put("startedAt", startedAt.toString());
+        result.put("target", options.target == null ? "embedded" : options.target.toString());
+        ObjectNode settings = result.putObject("options");
+        settings.put("rate", options.rate);
+        settings.put("warmupSeconds", options.warmup.toSeconds());
+        settings.put("durationSeconds", options.duration.toSeconds());
+        ObjectNode mix = settings.putObject("mix");
+        options.mix.forEach((operation, weight) -> mix.put(operation.name().toLowerCase(Locale.ROOT), weight));
+        settings.put("students", options.students);
+        settings.put("hotKeys", options.hotKeys);
+        settings.put("timeoutSeconds", options.timeout.toSeconds());
+        settings.put("seed", options.seed);
+        ArrayNode applicationArgs = settings.putArray("applicationArgs");
+        options.applicationArgs.forEach(applicationArgs::add);
+        result.put("maxScheduleLagMs", Math.round(maxLagNanos / 1000.0) / 1000.0);
+        ObjectNode endpoints = result.putObject("endpoints");
+        stats.forEach((operation, endpoint) -> endpoints.set(operation.getEndpoint(), endpoint.toJson(seconds)));
+        result.set("total", EndpointStats.combine(stats.values()).toJson(seconds));
+        return result;
+    }
+
+    private void print(ObjectNode result, JsonNode baseline) {
+        System.out.printf("%-36s %10s %9s %9s %9s %9s %8s%n",
+                "endpoint", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "failed");
+        List<Map.Entry<String, JsonNode>> rows = new ArrayList<>();
+        result.get("endpoints").fields().forEachRemaining(rows::add);
+        rows.add(Map.entry("total", result.get("total")));
+        for (Map.Entry<String, JsonNode> row : rows) {
+            JsonNode node = row.getValue();
+            JsonNode latency = node.get("latencyMs");
+            System.out.printf("%-36s %10.1f %9.3f %9.3f %9.3f %9.3f %8d%n", row.getKey(),
+                    node.get("throughput").asDouble(), latency.get("p50").asDouble(), latency.get("p99").asDouble(),
+                    latency.get("p99.9").asDouble(), latency.get("max").asDouble(), node.get("failed").asLong());
+            JsonNode before = baseline == null ? null
+                    : "total".equals(row.getKey()) ? baseline.get("total") : baseline.path("endpoints").get(row.getKey());
+            if (before != null) {
+                JsonNode beforeLatency = before.get("latencyMs");
+                System.out.printf("%-36s %10s %9s %9s %9s %9s%n", "  vs " + baseline.path("commit").asText("baseline"),
+                        change(before.get("throughput"), node.get("throughput")),
+                        change(beforeLatency.get("p50"), latency.get("p50")),
+                        change(beforeLatency.get("p99"), latency.get("p99")),
+                        change(beforeLatency.get("p99.9"), latency.get("p99.9")),
+                        change(beforeLatency.get("max"), latency.get("max")));
+            }
+        }
+        System.out.printf("max schedule lag %.3f ms%n", result.get("maxScheduleLagMs").asDouble());
+    }
+
+    private static String change(JsonNode before, JsonNode after) {
+        if (before.asDouble() == 0) {
+            return "n/a";
+        }
+        return String.format("%+.1f%%", (after.asDouble() - before.asDouble()) * 100 / before.asDouble());
+    }
+
+    /**
+     * The abbreviated commit the run was made from, or null outside a git checkout.
+     */
+    private static String commit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD")
+                    .redirectErrorStream(true)
+                    .start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
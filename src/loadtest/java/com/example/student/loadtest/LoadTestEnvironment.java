@@ -0,0 +1,61 @@
+package com.example.student.loadtest;
+
+import com.example.student.StudentApplication;
+import com.example.student.support.EmbeddedRedisServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the real application on a random port against in-process stand-ins: an H2 in-memory
+ * database and {@link EmbeddedRedisServer}. Generator and server share the machine, so results
+ * are only comparable between runs on the same machine.
+ */
+final class LoadTestEnvironment implements AutoCloseable {
+
+    private final EmbeddedRedisServer redis;
+    private final ConfigurableApplicationContext context;
+
+    private LoadTestEnvironment(EmbeddedRedisServer redis, ConfigurableApplicationContext context) {
+        this.redis = redis;
+        this.context = context;
+    }
+
+    /**
+     * @param applicationArgs extra {@code --property=value} arguments, applied after the defaults
+     *                        so they can switch profiles or override tuning properties
+     */
+    static LoadTestEnvironment start(List<String> applicationArgs) throws IOException {
+        EmbeddedRedisServer redis = EmbeddedRedisServer.start();
+        // passed as command-line arguments so they win over application.properties
+        List<String> args = new ArrayList<>(List.of("--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///loadtest;DB_CLOSE_DELAY=-1",
+                "--spring.redis.host=localhost",
+                "--spring.redis.port=" + redis.getPort()));
+        args.addAll(applicationArgs);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(StudentApplication.class)
+                .run(args.toArray(new String[0]));
+        return new LoadTestEnvironment(redis, context);
+    }
+
+    URI getBaseUri() {
+        return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        redis.close();
+    }
+}
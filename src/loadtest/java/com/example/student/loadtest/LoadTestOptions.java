@@ -0,0 +1,115 @@
+package com.example.student.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line options of {@link LoadTest}, given as {@code key=value}. Arguments starting with
+ * {@code --} are handed to the application unchanged.
+ */
+final class LoadTestOptions {
+
+    /** Requests started per second, independent of how fast responses come back. */
+    final int rate;
+    final Duration warmup;
+    final Duration duration;
+    /** Relative weight of each operation in the mix. */
+    final Map<Operation, Integer> mix;
+    /** Students created before the run; reads and writes pick uniformly among them. */
+    final int students;
+    /** The first {@code hotKeys} seeded students take all hot reads. */
+    final int hotKeys;
+    final Duration timeout;
+    final long seed;
+    /** Base URI of a running instance, or null to boot one against H2 and the embedded Redis. */
+    final URI target;
+    final Path output;
+    /** Earlier result to print the difference against, or null. */
+    final Path baseline;
+    final List<String> applicationArgs;
+
+    private LoadTestOptions(Map<String, String> values, List<String> applicationArgs) {
+        this.rate = Integer.parseInt(values.remove("rate"));
+        this.warmup = Duration.ofSeconds(Long.parseLong(values.remove("warmup")));
+        this.duration = Duration.ofSeconds(Long.parseLong(values.remove("duration")));
+        this.mix = parseMix(values.remove("mix"));
+        this.students = Integer.parseInt(values.remove("students"));
+        this.hotKeys = Integer.parseInt(values.remove("hot-keys"));
+        this.timeout = Duration.ofSeconds(Long.parseLong(values.remove("timeout")));
+        this.seed = Long.parseLong(values.remove("seed"));
+        String target = values.remove("target");
+        this.target = target.isEmpty() ? null : URI.create(target);
+        this.output = Path.of(values.remove("output"));
+        String baseline = values.remove("baseline");
+        this.baseline = baseline.isEmpty() ? null : Path.of(baseline);
+        this.applicationArgs = Collections.unmodifiableList(applicationArgs);
+        if (rate <= 0 || students <= 0 || hotKeys <= 0 || hotKeys > students || duration.isZero()) {
+            throw new IllegalArgumentException("rate, students, hot-keys and duration must be positive "
+                    + "and hot-keys must not exceed students");
+        }
+    }
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("rate", "500");
+        values.put("warmup", "10");
+        values.put("duration", "30");
+        values.put("mix", "read:80,hot:15,write:5");
+        values.put("students", "10000");
+        values.put("hot-keys", "16");
+        values.put("timeout", "10");
+        values.put("seed", "42");
+        values.put("target", "");
+        values.put("output", "target/loadtest-result.json");
+        values.put("baseline", "");
+        Map<String, String> given = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            given.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        for (Map.Entry<String, String> entry : given.entrySet()) {
+            if (!values.containsKey(entry.getKey())) {
+                throw new IllegalArgumentException("Unknown option " + entry.getKey());
+            }
+            values.put(entry.getKey(), entry.getValue());
+        }
+        return new LoadTestOptions(values, applicationArgs);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix but got " + part);
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + pair[0]);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(pair[0].toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+}
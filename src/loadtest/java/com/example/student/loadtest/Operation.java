@@ -0,0 +1,24 @@
+package com.example.student.loadtest;
+
+/**
+ * The kinds of request in a load mix. Each is reported as its own endpoint.
+ */
+enum Operation {
+    /** {@code GET /students/{id}/student} for a student picked uniformly. */
+    READ("GET /students/{id}/student"),
+    /** The same endpoint, restricted to the small hot-key set. */
+    HOT("GET /students/{id}/student [hot]"),
+    /** {@code PUT /students/{id}/update-student} without a precondition. */
+    WRITE("PUT /students/{id}/update-student"),
+    CREATE("POST /students/add-student");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.student.Repository;
+
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking access to the {@code students} table over R2DBC, for the {@code reactive} profile.
+ * The schema is still owned by the JPA entity; statements here mirror {@link StudentRepository}.
+ * <p>
+ * New ids come from the same {@code students_seq} Hibernate uses, with the same pooled semantics:
+ * a sequence value {@code hi} reserves the ids {@code hi - allocationSize + 1 .. hi}. On MySQL,
+ * which has no sequences, Hibernate keeps that value in a one-row table, advanced here the same
+ * way under {@code select ... for update}. Either stack can therefore insert without collisions;
+ * {@link com.example.student.config.StudentIdSequenceInitializer} moves the value past existing ids
+ * at startup.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveStudentRepository {
+
+    private static final String COLUMNS = "id, name, age, version";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Mono<Boolean> nativeSequences;
+    private final AtomicReference<IdBlock> ids = new AtomicReference<>(new IdBlock(1, 0));
+
+    public ReactiveStudentRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+        this.nativeSequences = Mono.usingWhen(connectionFactory.create(),
+                        connection -> Mono.just(!connection.getMetadata().getDatabaseProductName()
+                                .toLowerCase(Locale.ROOT).contains("mysql")),
+                        Connection::close)
+                .cache();
+    }
+
+    public Mono<Student> findById(Long id) {
+        return databaseClient.sql("select " + COLUMNS + " from students where id = :id")
+                .bind("id", id)
+                .map(ReactiveStudentRepository::toStudent)
+                .one();
+    }
+
+    public Flux<Student> findAllById(Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("select " + COLUMNS + " from students where id in (:ids)")
+                .bind("ids", studentIds)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    /**
+     * Emits every student in id order as rows arrive, fetching {@code fetchSize} rows at a time,
+     * so a slow subscriber holds back the query instead of buffering the table.
+     */
+    public Flux<Student> findAll(int fetchSize) {
+        return databaseClient.sql("select " + COLUMNS + " from students order by id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    public Flux<Student> findByIdGreaterThan(Long after, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from students where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    public Flux<Student> findUpdatedSince(LocalDateTime since, Long after, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from students where updated_at >= :since and id > :after "
+                        + "order by id limit :limit")
+                .bind("since", since)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveStudentRepository::toStudent)
+                .all();
+    }
+
+    public Mono<Student> insert(String name, int age) {
+        return nextId().flatMap(id -> insert(toStudent(id, name, age, 0L)));
+    }
+
+    /**
+     * Inserts all students in one transaction. Ids are reserved up front, so the sequence is never
+     * locked for the length of the batch.
+     */
+    public Flux<Student> insertAll(List<Student> students) {
+        return Flux.fromIterable(students)
+                .concatMap(student -> nextId().map(id -> toStudent(id, student.getName(), student.getAge(), 0L)))
+                .collectList()
+                .flatMapMany(rows -> Flux.fromIterable(rows)
+                        .concatMap(this::insert)
+                        .as(transactionalOperator::transactional));
+    }
+
+    private Mono<Student> insert(Student student) {
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.sql("insert into students (id, name, age, created_at, updated_at, version) "
+                        + "values (:id, :name, :age, :now, :now, 0)")
+                .bind("id", student.getId())
+                .bind("name", student.getName())
+                .bind("age", student.getAge())
+                .bind("now", now)
+                .then()
+                .thenReturn(student);
+    }
+
+    public Mono<Long> updateById(Long id, String name, int age) {
+        return databaseClient.sql("update students set name = :name, age = :age, updated_at = :now, "
+                        + "version = version + 1 where id = :id")
+                .bind("id", id)
+                .bind("name", name)
+                .bind("age", age)
+                .bind("now", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> updateByIdAndVersion(Long id, Long version, String name, int age) {
+        return databaseClient.sql("update students set name = :name, age = :age, updated_at = :now, "
+                        + "version = version + 1 where id = :id and version = :version")
+                .bind("id", id)
+                .bind("version", version)
+                .bind("name", name)
+                .bind("age", age)
+                .bind("now", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> removeById(Long id) {
+        return databaseClient.sql("delete from students where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> removeByIdAndVersion(Long id, Long version) {
+        return databaseClient.sql("delete from students where id = :id and version = :version")
+                .bind("id", id)
+                .bind("version", version)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = ids.get().next();
+            if (id > 0) {
+                return Mono.just(id);
+            }
+            return nextHiValue().map(hi -> {
+                IdBlock block = new IdBlock(Math.max(1, hi - Constant.STUDENT_ID_ALLOCATION_SIZE + 1), hi);
+                long first = block.next();
+                ids.set(block);
+                return first;
+            });
+        });
+    }
+
+    private Mono<Long> nextHiValue() {
+        return nativeSequences.flatMap(sequences -> {
+            if (sequences) {
+                return databaseClient.sql("select next value for students_seq")
+                        .map(row -> row.get(0, Long.class))
+                        .one();
+            }
+            return databaseClient.sql("select next_val from students_seq for update")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .flatMap(current -> databaseClient.sql("update students_seq set next_val = :next where next_val = :current")
+                            .bind("next", current + Constant.STUDENT_ID_ALLOCATION_SIZE)
+                            .bind("current", current)
+                            .then()
+                            .thenReturn(current))
+                    .as(transactionalOperator::transactional);
+        });
+    }
+
+    private static Student toStudent(Readable row) {
+        return toStudent(row.get("id", Long.class), row.get("name", String.class),
+                row.get("age", Integer.class), row.get("version", Long.class));
+    }
+
+    private static Student toStudent(Long id, String name, Integer age, Long version) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName(name);
+        student.setAge(age == null ? 0 : age);
+        student.setVersion(version);
+        return student;
+    }
+
+    /**
+     * Ids {@code next..last} still free in the block reserved by the last sequence value.
+     */
+    private static final class IdBlock {
+        private final AtomicLong next;
+        private final long last;
+
+        private IdBlock(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+
+        private long next() {
+            long id = next.getAndIncrement();
+            return id <= last ? id : -1;
+        }
+    }
+}
@@ -1,9 +1,53 @@
 package com.example.student.Repository;
 
 import com.example.student.entity.Student;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
-public interface StudentRepository  extends JpaRepository<Student,Long> {
+public interface StudentRepository  extends JpaRepository<Student,Long>, StudentRepositoryCustom {
+
+    /**
+     * Every student, in id order, as a read-only projection: the rows are plain {@link Student}s
+     * built by the query, never managed by the persistence context, so there is no entity
+     * snapshot kept per row for dirty checking.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.example.student.entity.Student(s.id, s.name, s.age, s.version) from Student s "
+            + "order by s.id")
+    List<Student> findAllDetached();
+
+    /**
+     * Read-only projection, see {@link #findAllDetached}.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.example.student.entity.Student(s.id, s.name, s.age, s.version) from Student s "
+            + "where s.id > :id order by s.id")
+    List<Student> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Limit limit);
+
+    /**
+     * Students updated at or after {@code since}, in id order, starting after {@code id}.
+     * Read-only projection, see {@link #findAllDetached}.
+     */
+    @Transactional(readOnly = true)
+    @Query("select new com.example.student.entity.Student(s.id, s.name, s.age, s.version) from Student s "
+            + "where s.updatedAt >= :since and s.id > :id order by s.id")
+    List<Student> findUpdatedSince(@Param("since") LocalDateTime since, @Param("id") Long id, Limit limit);
+
+    /**
+     * Rows of {@code [age, count]}, one per distinct age. Runs in a read-write transaction, so it is
+     * answered by the primary: {@link com.example.student.service.StudentStatistics} compares it with
+     * counters that already include this instance's latest writes, which a lagging replica would
+     * undo.
+     */
+    @Transactional
+    @Query("select s.age, count(s) from Student s group by s.age")
+    List<Object[]> countByAge();
 }
@@ -0,0 +1,77 @@
+package com.example.student.Repository;
+
+import com.example.student.entity.Student;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface StudentRepositoryCustom {
+
+    /**
+     * Walks the whole {@code students} table in id order through a forward-only cursor,
+     * handing each row to {@code consumer} without keeping it in a persistence context. Runs in a
+     * read-only transaction, so it is served by a replica when one is configured.
+     */
+    void streamAll(int fetchSize, Consumer<Student> consumer);
+
+    /**
+     * Same result as {@code findById}, but read from the primary in a read-write transaction and
+     * past the second-level cache, for callers that must not see a lagging replica's row.
+     */
+    Optional<Student> findLatestById(Long id);
+
+    /**
+     * Same result as {@code findAllById}, in no particular order, but ids held in the second-level
+     * cache are answered from it and only the rest are queried, with one IN query.
+     */
+    List<Student> findAllCachedById(Collection<Long> ids);
+
+    /**
+     * Persists new students in one transaction, flushing every {@code batchSize} rows so Hibernate
+     * sends them as JDBC batches and the persistence context never grows past one batch. The new
+     * rows are not put into the second-level cache.
+     */
+    List<Student> insertAll(List<Student> students, int batchSize);
+
+    /**
+     * Same as {@link #insertAll}, and records {@code chunk} of bulk import {@code importKey} as done
+     * in the same transaction, so a chunk is either inserted and recorded or neither.
+     */
+    List<Student> insertChunk(String importKey, int chunk, List<Student> students, int batchSize);
+
+    /**
+     * Chunks of bulk import {@code importKey} recorded by {@link #insertChunk}. Read from the
+     * primary, since a lagging replica would let a resumed import insert a chunk again.
+     */
+    List<Integer> findImportedChunks(String importKey);
+
+    /**
+     * Forgets the recorded chunks of a finished import. Returns how many there were.
+     */
+    int deleteImportedChunks(String importKey);
+
+    /**
+     * Overwrites name, age and version of existing students with one JDBC batch of UPDATE
+     * statements, without loading them first. A row is only written while its stored version is
+     * below the given one, so a late batch never moves a student back; 0 in the returned per-student
+     * row counts means the student is gone or already at that version or beyond.
+     */
+    int[] updateAll(List<Student> students);
+
+    /**
+     * Overwrites name and age and bumps the version with a single UPDATE. Returns the row count.
+     */
+    int updateById(Long id, String name, int age, LocalDateTime updatedAt);
+
+    /**
+     * Same as {@link #updateById}, but only matches the row while it is at {@code version}.
+     */
+    int updateByIdAndVersion(Long id, Long version, String name, int age, LocalDateTime updatedAt);
+
+    int removeById(Long id);
+
+    int removeByIdAndVersion(Long id, Long version);
+}
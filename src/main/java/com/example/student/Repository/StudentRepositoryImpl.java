@@ -0,0 +1,225 @@
+package com.example.student.Repository;
+
+import com.example.student.entity.Student;
+import com.example.student.entity.StudentImportChunk;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Writes run as plain JDBC statements. Hibernate cannot tell which rows a JPQL bulk update or
+ * delete touches, so it would drop the whole {@code Student} second-level cache region on each
+ * one; here only the written ids are evicted, before the statement and again once the transaction
+ * has completed, so a load racing the write cannot leave the old row cached for long.
+ */
+public class StudentRepositoryImpl implements StudentRepositoryCustom {
+
+    private final SessionFactory sessionFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StudentRepositoryImpl(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(int fetchSize, Consumer<Student> consumer) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (StatelessSession session = sessionFactory.withStatelessOptions()
+                         .connection(connection)
+                         .openStatelessSession();
+                 ScrollableResults<Student> rows = session
+                         .createSelectionQuery("from Student s order by s.id", Student.class)
+                         .setFetchSize(fetchSize)
+                         .setReadOnly(true)
+                         .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    consumer.accept(rows.get());
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public Optional<Student> findLatestById(Long id) {
+        return Optional.ofNullable(entityManager.find(Student.class, id,
+                Map.of(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Student> findAllCachedById(Collection<Long> ids) {
+        List<Student> students = entityManager.unwrap(Session.class)
+                .byMultipleIds(Student.class)
+                .enableOrderedReturn(false)
+                .multiLoad(new ArrayList<>(ids));
+        students.removeIf(Objects::isNull);
+        return students;
+    }
+
+    @Override
+    @Transactional
+    public List<Student> insertAll(List<Student> students, int batchSize) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (int i = 0; i < students.size(); i++) {
+            entityManager.persist(students.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return students;
+    }
+
+    @Override
+    @Transactional
+    public List<Student> insertChunk(String importKey, int chunk, List<Student> students, int batchSize) {
+        insertAll(students, batchSize);
+        entityManager.persist(new StudentImportChunk(importKey, chunk));
+        entityManager.flush();
+        entityManager.clear();
+        return students;
+    }
+
+    @Override
+    @Transactional
+    public List<Integer> findImportedChunks(String importKey) {
+        return entityManager.createQuery(
+                        "select c.chunk from StudentImportChunk c where c.importKey = :importKey", Integer.class)
+                .setParameter("importKey", importKey)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteImportedChunks(String importKey) {
+        return entityManager.createQuery("delete from StudentImportChunk c where c.importKey = :importKey")
+                .setParameter("importKey", importKey)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public int[] updateAll(List<Student> students) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>(students.size());
+        for (Student student : students) {
+            ids.add(student.getId());
+        }
+        return write(ids, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update students set name = ?, age = ?, updated_at = ?, version = ? where id = ? and version < ?")) {
+                for (Student student : students) {
+                    statement.setString(1, student.getName());
+                    statement.setInt(2, student.getAge());
+                    statement.setTimestamp(3, now);
+                    statement.setLong(4, student.getVersion());
+                    statement.setLong(5, student.getId());
+                    statement.setLong(6, student.getVersion());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int updateById(Long id, String name, int age, LocalDateTime updatedAt) {
+        return write(List.of(id), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update students set name = ?, age = ?, updated_at = ?, version = version + 1 where id = ?")) {
+                statement.setString(1, name);
+                statement.setInt(2, age);
+                statement.setTimestamp(3, Timestamp.valueOf(updatedAt));
+                statement.setLong(4, id);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int updateByIdAndVersion(Long id, Long version, String name, int age, LocalDateTime updatedAt) {
+        return write(List.of(id), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "update students set name = ?, age = ?, updated_at = ?, version = version + 1 "
+                            + "where id = ? and version = ?")) {
+                statement.setString(1, name);
+                statement.setInt(2, age);
+                statement.setTimestamp(3, Timestamp.valueOf(updatedAt));
+                statement.setLong(4, id);
+                statement.setLong(5, version);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int removeById(Long id) {
+        return write(List.of(id), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("delete from students where id = ?")) {
+                statement.setLong(1, id);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int removeByIdAndVersion(Long id, Long version) {
+        return write(List.of(id), connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "delete from students where id = ? and version = ?")) {
+                statement.setLong(1, id);
+                statement.setLong(2, version);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    private <T> T write(Collection<Long> ids, ReturningWork<T> work) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        evict(ids);
+        AfterTransactionCompletionProcess evictAgain = (success, completedSession) -> evict(ids);
+        session.getActionQueue().registerProcess(evictAgain);
+        return session.doReturningWork(work);
+    }
+
+    private void evict(Collection<Long> ids) {
+        Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(Student.class, id);
+        }
+    }
+}
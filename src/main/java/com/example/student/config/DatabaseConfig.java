@@ -11,6 +11,8 @@ import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.retry.annotation.Retryable;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +27,16 @@ public class DatabaseConfig {
     private String password;
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+    @Value("${student.datasource.replica-urls:}")
+    private List<String> replicaUrls;
+    @Value("${student.datasource.replica-lag-query:}")
+    private String replicaLagQuery;
+    @Value("${student.datasource.replica-max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+    @Value("${student.datasource.replica-check-interval-ms:5000}")
+    private long replicaCheckIntervalMillis;
 
     private static final Logger logger = Logger.getLogger(DatabaseConfig.class.getName());
 
@@ -33,18 +45,39 @@ public class DatabaseConfig {
     @CircuitBreaker(name = "databaseCircuitBreaker", fallbackMethod = "fallbackForDatabase")
     public DataSource dataSource() {
         try {
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(jdbcUrl);
-            config.setUsername(username);
-            config.setPassword(password);
-            config.setDriverClassName(driverClassName);
+            HikariDataSource primary = pool(jdbcUrl, "student-primary", false);
+            List<HikariDataSource> replicas = new ArrayList<>();
+            for (String replicaUrl : replicaUrls) {
+                if (!replicaUrl.isBlank()) {
+                    replicas.add(pool(replicaUrl.trim(), "student-replica-" + replicas.size(), true));
+                }
+            }
+            if (replicas.isEmpty()) {
+                return primary;
+            }
 
-            return new HikariDataSource(config);
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                    replicaLagQuery, replicaMaxLagSeconds);
+            routing.startHealthChecks(replicaCheckIntervalMillis);
+            logger.info("Routing read-only transactions to " + replicas.size() + " replica(s)");
+            return routing;
         } catch (Exception ex) {
             logger.log(Level.SEVERE, "Failed to establish a database connection", ex);
             throw ex;
         }
     }
+    private HikariDataSource pool(String url, String poolName, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setDriverClassName(driverClassName);
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setPoolName(poolName);
+        config.setReadOnly(readOnly);
+        return new HikariDataSource(config);
+    }
+
     public DataSource fallbackForDatabase(Exception ex) {
         logger.log(Level.SEVERE, "Max retry attempts or circuit breaker triggered. Falling back to default DataSource.", ex);
         return getDefaultDataSource();
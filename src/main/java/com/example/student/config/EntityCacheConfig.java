@@ -0,0 +1,61 @@
+package com.example.student.config;
+
+import com.example.student.utils.Constant;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Hibernate's second-level cache for {@code Student}: a local Caffeine cache behind JCache, bounded
+ * to {@code max-entries} students. Its entries expire after {@code expiry-seconds}, which bounds how
+ * long a replica can serve a row another replica has changed; writes on this replica evict their
+ * rows right away (see {@code StudentRepositoryImpl}).
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    private static final Logger logger = Logger.getLogger(EntityCacheConfig.class.getName());
+
+    @Value("${student.entity-cache.max-entries:" + Constant.ENTITY_CACHE_MAX_ENTRIES + "}")
+    private long maxEntries;
+    @Value("${student.entity-cache.expiry-seconds:" + Constant.NEAR_CACHE_EXPIRY_SECONDS + "}")
+    private long expirySeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+        if (cacheManager.getCache(Constant.STUDENT_CACHE_REGION) == null) {
+            CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+            region.setMaximumSize(OptionalLong.of(maxEntries));
+            region.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(expirySeconds)));
+            region.setStatisticsEnabled(true);
+            cacheManager.createCache(Constant.STUDENT_CACHE_REGION, region);
+        }
+        logger.info("Student entity cache holds up to " + maxEntries + " rows for " + expirySeconds + "s");
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> JCacheMetrics.monitor(registry,
+                entityCacheManager.getCache(Constant.STUDENT_CACHE_REGION));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.student.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Boot prefers Tomcat for a reactive server whenever it is on the classpath, which it always is for
+ * the servlet stack. The {@code reactive} profile is meant to run on Reactor Netty's event loops,
+ * so its factory is declared explicitly.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.student.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions ({@code @Transactional(readOnly = true)}, which includes
+ * the finders inherited from {@code SimpleJpaRepository}) to a replica and everything else to the
+ * primary. Connections are handed out lazily, so the transaction's read-only flag is known before
+ * the physical connection is chosen.
+ * <p>
+ * Replicas are picked round robin among those that passed the last health check. A replica is
+ * healthy when it hands out a valid connection and, if a lag query is configured, reports no more
+ * than the allowed lag in seconds. With no healthy replica, reads fall back to the primary. A
+ * replica that fails to hand out a connection is taken out of rotation until the next check, unless
+ * its pool merely timed out waiting for a free connection; that read just moves on.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final ReplicaSet replicaSet;
+    private ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas,
+                                      String lagQuery, long maxLagSeconds) {
+        super(primary);
+        this.primary = primary;
+        this.replicaSet = new ReplicaSet(primary, replicas, lagQuery, maxLagSeconds);
+        setReadOnlyDataSource(replicaSet);
+    }
+
+    /**
+     * Checks every replica now and then every {@code intervalMillis} on a background thread.
+     */
+    public synchronized void startHealthChecks(long intervalMillis) {
+        checkReplicas();
+        if (healthChecker == null) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "student-replica-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void checkReplicas() {
+        replicaSet.checkAll();
+    }
+
+    int healthyReplicaCount() {
+        return replicaSet.healthyCount();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicaSet.replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final String name;
+        private volatile boolean healthy;
+
+        private Replica(DataSource dataSource, String name) {
+            this.dataSource = dataSource;
+            this.name = name;
+        }
+    }
+
+    private static final class ReplicaSet extends AbstractDataSource {
+
+        private final DataSource primary;
+        private final List<Replica> replicas = new ArrayList<>();
+        private final String lagQuery;
+        private final long maxLagSeconds;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private ReplicaSet(DataSource primary, List<? extends DataSource> replicas, String lagQuery, long maxLagSeconds) {
+            this.primary = primary;
+            for (int i = 0; i < replicas.size(); i++) {
+                this.replicas.add(new Replica(replicas.get(i), "replica-" + i));
+            }
+            this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+            this.maxLagSeconds = maxLagSeconds;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException ex) {
+                    if (!isConnectionFailure(ex)) {
+                        logger.debug("Replica " + replica.name + " has no free connection", ex);
+                        continue;
+                    }
+                    replica.healthy = false;
+                    logger.warn("Replica " + replica.name + " refused a connection, taking it out of rotation", ex);
+                }
+            }
+            return primary.getConnection();
+        }
+
+        /**
+         * Whether {@code ex} means the replica cannot be reached, rather than that its pool is
+         * exhausted. Hikari reports a pool timeout as a {@link SQLTransientConnectionException}
+         * that only carries a connection exception SQLState (class 08) when its own attempts to
+         * connect failed.
+         */
+        private static boolean isConnectionFailure(SQLException ex) {
+            String state = ex.getSQLState();
+            return (state != null && state.startsWith("08")) || !(ex instanceof SQLTransientConnectionException);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return getConnection();
+        }
+
+        private void checkAll() {
+            for (Replica replica : replicas) {
+                boolean healthy = isHealthy(replica);
+                if (healthy != replica.healthy) {
+                    logger.info("Replica " + replica.name + " is now " + (healthy ? "in" : "out of") + " rotation");
+                }
+                replica.healthy = healthy;
+            }
+        }
+
+        private boolean isHealthy(Replica replica) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    return false;
+                }
+                if (lagQuery == null) {
+                    return true;
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet lag = statement.executeQuery(lagQuery)) {
+                    if (!lag.next()) {
+                        return false;
+                    }
+                    long seconds = lag.getLong(1);
+                    return !lag.wasNull() && seconds <= maxLagSeconds;
+                }
+            } catch (SQLException ex) {
+                logger.debug("Health check failed for replica " + replica.name, ex);
+                return false;
+            }
+        }
+
+        private int healthyCount() {
+            int count = 0;
+            for (Replica replica : replicas) {
+                if (replica.healthy) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
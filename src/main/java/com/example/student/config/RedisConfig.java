@@ -1,18 +1,31 @@
 package com.example.student.config;
 
+import com.example.student.service.StudentChangeFeed;
+import com.example.student.service.StudentNearCache;
+import com.example.student.utils.Constant;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.resource.ClientResources;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.EnableRetry;
 import org.springframework.retry.annotation.Retryable;
 
+import java.time.Duration;
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,14 +39,18 @@ public class RedisConfig {
     private String redisHost;
     @Value("${spring.redis.port}")
     private int redisPort;
+    @Value("${student.cache.codec:json}")
+    private String cacheCodec;
+    @Value("${student.redis.command-timeout-ms:250}")
+    private long commandTimeoutMillis;
 
     @Bean
     @Retryable(maxAttempts = 3, backoff = @Backoff(delay = 2000))
     @CircuitBreaker(name = "redisService", fallbackMethod = "fallbackForRedis")
-    public LettuceConnectionFactory redisConnectionFactory() {
+    public LettuceConnectionFactory redisConnectionFactory(ClientResources clientResources) {
         try {
             RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
-            return new LettuceConnectionFactory(config);
+            return new LettuceConnectionFactory(config, clientConfiguration(clientResources));
         } catch (Exception ex) {
             logger.log(Level.SEVERE, "Error while creating Redis connection factory", ex);
             throw ex;
@@ -44,16 +61,56 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(studentCacheSerializer());
         return template;
     }
-    public LettuceConnectionFactory fallbackForRedis(Exception ex) {
+    /**
+     * Same keys and value codec as {@link #redisTemplate}, for the non-blocking stack.
+     */
+    @Bean
+    @Profile("reactive")
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(LettuceConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(studentCacheSerializer())
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory connectionFactory,
+                                                                       StudentNearCache studentNearCache,
+                                                                       StudentChangeFeed studentChangeFeed) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(studentNearCache, new ChannelTopic(Constant.STUDENT_INVALIDATION_CHANNEL));
+        container.addMessageListener(studentChangeFeed, new ChannelTopic(Constant.STUDENT_CHANGES_CHANNEL));
+        return container;
+    }
+    public LettuceConnectionFactory fallbackForRedis(ClientResources clientResources, Exception ex) {
         logger.log(Level.SEVERE, "Failed to connect to Redis. Circuit breaker is open. Falling back to default connection.", ex);
-        return getDefaultLettuceConnectionFactory();
+        return getDefaultLettuceConnectionFactory(clientResources);
     }
-    private LettuceConnectionFactory getDefaultLettuceConnectionFactory() {
+    private LettuceConnectionFactory getDefaultLettuceConnectionFactory(ClientResources clientResources) {
         RedisStandaloneConfiguration defaultConfig = new RedisStandaloneConfiguration(redisHost, redisPort);
         logger.info("Fallback: Returning default Redis connection");
-        return new LettuceConnectionFactory(defaultConfig);
+        return new LettuceConnectionFactory(defaultConfig, clientConfiguration(clientResources));
+    }
+    private StudentCacheSerializer studentCacheSerializer() {
+        return new StudentCacheSerializer(
+                StudentCacheSerializer.Format.valueOf(cacheCodec.trim().toUpperCase(Locale.ROOT)));
+    }
+    /**
+     * Uses Boot's shared {@link ClientResources}, which carry the Micrometer command latency recorder.
+     * Lettuce's own command timeout is a minute; a short one keeps a stalled Redis from holding
+     * requests for that long. It is set through {@link TimeoutOptions} rather than as the client's
+     * command timeout, which would also bound the connection handshake.
+     */
+    private LettuceClientConfiguration clientConfiguration(ClientResources clientResources) {
+        return LettuceClientConfiguration.builder()
+                .clientResources(clientResources)
+                .clientOptions(ClientOptions.builder()
+                        .timeoutOptions(TimeoutOptions.enabled(Duration.ofMillis(commandTimeoutMillis)))
+                        .build())
+                .build();
     }
 }
@@ -0,0 +1,117 @@
+package com.example.student.config;
+
+import com.example.student.dtos.StudentJson;
+import com.example.student.entity.Student;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Redis value serializer that writes {@link Student} as the legacy polymorphic JSON, as a compact
+ * fixed-layout binary record or as the client-facing JSON of {@link StudentJson}, depending on
+ * {@link Format}. Reads always accept all three, so the write format can be switched replica by
+ * replica while old entries age out.
+ * <p>
+ * Binary layout (big-endian): magic {@code 0xB7}, schema version, then {@code id} (int64, with
+ * {@code Long.MIN_VALUE} for null), {@code version} (int64, same null marker; schema 2 only),
+ * {@code age} (int32) and {@code name} as an int32 byte length ({@code -1} for null) followed by
+ * UTF-8 bytes. Schema 1 entries, written before students were versioned, still decode. JSON never
+ * starts with the magic byte, which is a UTF-8 continuation byte, so the two encodings cannot be
+ * confused. The {@code PASSTHROUGH} layout is described on {@link StudentJson}; it starts with its
+ * own continuation byte, {@code 0xB8}.
+ */
+public class StudentCacheSerializer implements RedisSerializer<Object> {
+
+    public enum Format { JSON, BINARY, PASSTHROUGH }
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION_1 = 1;
+    static final byte VERSION_2 = 2;
+    private static final long NULL_LONG = Long.MIN_VALUE;
+    private static final int NULL_NAME = -1;
+
+    private final Format format;
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+
+    public StudentCacheSerializer(Format format) {
+        this.format = format;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (format == Format.BINARY && value instanceof Student student) {
+            return encode(student);
+        }
+        if (format == Format.PASSTHROUGH && value instanceof Student student) {
+            return StudentJson.encode(student);
+        }
+        return json.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == MAGIC) {
+            return decode(bytes);
+        }
+        if (bytes[0] == StudentJson.MAGIC) {
+            StudentJson student = StudentJson.wrap(bytes);
+            if (student == null) {
+                throw new SerializationException("Truncated student cache entry");
+            }
+            try {
+                return student.toStudent();
+            } catch (UncheckedIOException ex) {
+                throw new SerializationException("Malformed student cache entry", ex);
+            }
+        }
+        return json.deserialize(bytes);
+    }
+
+    private static byte[] encode(Student student) {
+        byte[] name = student.getName() == null ? null : student.getName().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 8 + 8 + 4 + 4 + (name == null ? 0 : name.length));
+        buffer.put(MAGIC).put(VERSION_2);
+        buffer.putLong(student.getId() == null ? NULL_LONG : student.getId());
+        buffer.putLong(student.getVersion() == null ? NULL_LONG : student.getVersion());
+        buffer.putInt(student.getAge());
+        if (name == null) {
+            buffer.putInt(NULL_NAME);
+        } else {
+            buffer.putInt(name.length).put(name);
+        }
+        return buffer.array();
+    }
+
+    private static Student decode(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+            byte version = buffer.get();
+            if (version != VERSION_1 && version != VERSION_2) {
+                throw new SerializationException("Unsupported student cache schema version: " + version);
+            }
+            Student student = new Student();
+            long id = buffer.getLong();
+            student.setId(id == NULL_LONG ? null : id);
+            if (version == VERSION_2) {
+                long studentVersion = buffer.getLong();
+                student.setVersion(studentVersion == NULL_LONG ? null : studentVersion);
+            }
+            student.setAge(buffer.getInt());
+            int nameLength = buffer.getInt();
+            if (nameLength != NULL_NAME) {
+                student.setName(new String(bytes, buffer.position(), nameLength, StandardCharsets.UTF_8));
+            }
+            return student;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated student cache entry", ex);
+        }
+    }
+}
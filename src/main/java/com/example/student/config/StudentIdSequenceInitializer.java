@@ -0,0 +1,96 @@
+package com.example.student.config;
+
+import com.example.student.utils.Constant;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Moves {@code students_seq} past the ids already in {@code students} before anything inserts.
+ * <p>
+ * Student ids come from a pooled sequence: a sequence value {@code hi} hands out the ids
+ * {@code hi - allocationSize + 1 .. hi}. Tables created with AUTO_INCREMENT ids, or filled before
+ * the sequence existed, would otherwise collide with the first blocks it hands out. On MySQL,
+ * which has no sequences, Hibernate keeps the value in a one-row {@code students_seq} table
+ * (created by {@code ddl-auto} starting at 1), and the table is raised with a conditional update,
+ * so instances starting together never lower it. Databases with real sequences get theirs
+ * restarted; an empty {@code students} table is left alone. Startup fails if the next block would
+ * still reach down to {@code max(id)}.
+ * <p>
+ * Depends on the {@link EntityManagerFactory} so the schema exists by the time this runs.
+ */
+@Component
+public class StudentIdSequenceInitializer {
+
+    private static final Logger logger = Logger.getLogger(StudentIdSequenceInitializer.class.getName());
+    private static final String SEQUENCE = "students_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public StudentIdSequenceInitializer(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    public void seed() {
+        long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from students", Long.class);
+        if (maxId == 0) {
+            return;
+        }
+        long required = maxId + Constant.STUDENT_ID_ALLOCATION_SIZE;
+        long hi = isTable() ? seedTable(required) : seedSequence(required);
+        long firstId = hi - Constant.STUDENT_ID_ALLOCATION_SIZE + 1;
+        if (firstId <= maxId) {
+            throw new IllegalStateException(SEQUENCE + " would hand out id " + firstId
+                    + " but students already holds ids up to " + maxId);
+        }
+    }
+
+    private long seedTable(long required) {
+        List<Long> current = jdbcTemplate.queryForList("select next_val from " + SEQUENCE, Long.class);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("insert into " + SEQUENCE + " (next_val) values (?)", required);
+            logger.info("Seeded " + SEQUENCE + " at " + required);
+        } else if (jdbcTemplate.update("update " + SEQUENCE + " set next_val = ? where next_val < ?", required, required) > 0) {
+            logger.info("Raised " + SEQUENCE + " from " + current.get(0) + " to " + required + " past the existing ids");
+        }
+        return jdbcTemplate.queryForObject("select next_val from " + SEQUENCE, Long.class);
+    }
+
+    /**
+     * Sequences cannot be read without advancing them, so the block read here is skipped; the
+     * next one starts right after it and only needs a restart when the two overlap existing ids.
+     */
+    private long seedSequence(long required) {
+        long read = jdbcTemplate.queryForObject("select next value for " + SEQUENCE, Long.class);
+        if (read + Constant.STUDENT_ID_ALLOCATION_SIZE >= required) {
+            return read + Constant.STUDENT_ID_ALLOCATION_SIZE;
+        }
+        jdbcTemplate.execute("alter sequence " + SEQUENCE + " restart with " + required);
+        logger.info("Restarted " + SEQUENCE + " at " + required + " past the existing ids");
+        return required;
+    }
+
+    /**
+     * Whether Hibernate emulates the sequence with a table, which it does on databases without
+     * sequences.
+     */
+    private boolean isTable() {
+        Boolean table = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? SEQUENCE.toUpperCase() : SEQUENCE;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        });
+        return Boolean.TRUE.equals(table);
+    }
+}
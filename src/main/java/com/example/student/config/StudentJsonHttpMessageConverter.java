@@ -0,0 +1,45 @@
+package com.example.student.config;
+
+import com.example.student.dtos.StudentJson;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link StudentJson} body as it is, with its length known upfront. Write only.
+ */
+public class StudentJsonHttpMessageConverter extends AbstractHttpMessageConverter<StudentJson> {
+
+    public StudentJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StudentJson.class == clazz;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StudentJson readInternal(Class<? extends StudentJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StudentJson is write only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(StudentJson student, MediaType contentType) {
+        return (long) student.length();
+    }
+
+    @Override
+    protected void writeInternal(StudentJson student, HttpOutputMessage outputMessage) throws IOException {
+        student.writeTo(outputMessage.getBody());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.student.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Boot adds {@link org.springframework.http.converter.HttpMessageConverter} beans in front of its
+ * default converters.
+ */
+@Configuration
+@Profile("!reactive")
+public class WebConfig {
+
+    @Bean
+    public StudentJsonHttpMessageConverter studentJsonHttpMessageConverter() {
+        return new StudentJsonHttpMessageConverter();
+    }
+}
@@ -1,24 +1,55 @@
 package com.example.student.controller;
 
+import com.example.student.dtos.StudentChangeEvent;
 import com.example.student.dtos.StudentDto;
+import com.example.student.dtos.StudentPageDto;
+import com.example.student.dtos.StudentStatsDto;
+import com.example.student.dtos.StudentTransferDto;
 import com.example.student.entity.Student;
+import com.example.student.exception.StudentVersionConflictException;
+import com.example.student.service.StudentChangeListener;
 import com.example.student.service.StudentService;
+import com.example.student.utils.Constant;
+import com.example.student.utils.EntityTags;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/students")
 public class StudentController {
+    private static final Logger log = LoggerFactory.getLogger(StudentController.class);
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
     private final StudentService studentService;
+    private final ObjectMapper objectMapper;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/all-students")
@@ -26,18 +57,167 @@ public class StudentController {
         return ResponseEntity.ok(studentService.getAllStudents());
     }
 
+    @GetMapping("/page")
+    public ResponseEntity<StudentPageDto> getStudentsPage(@RequestParam(required = false) Long after,
+                                                          @RequestParam(defaultValue = "" + Constant.PAGE_DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(studentService.getStudentsPage(after, limit));
+    }
+
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamStudents() {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                studentService.streamAllStudents(student -> {
+                    try {
+                        writer.writeValue(generator, student);
+                        generator.writeRaw('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Server-sent events for every student created, updated or deleted, see
+     * {@link com.example.student.service.StudentChangeFeed}. Replaces polling {@code /all-students}.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        try {
+            studentService.streamChangesAsync(lastEventId, new StudentChangeListener() {
+                @Override
+                public void onChange(StudentChangeEvent event, String eventId) throws IOException {
+                    SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                            .name(event.getType())
+                            .data(event, MediaType.APPLICATION_JSON);
+                    if (eventId != null) {
+                        builder.id(eventId);
+                    }
+                    emitter.send(builder);
+                }
+
+                @Override
+                public void onIdle() throws IOException {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                }
+            }).whenComplete((ignored, ex) -> emitter.complete());
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Constant.RETRY_AFTER_SECONDS))
+                    .build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
+    /**
+     * Starts importing a CSV or NDJSON file from the bulk directory, see
+     * {@link com.example.student.service.StudentBulkTransfer}. Progress is reported by
+     * {@code GET /students/transfer}.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<?> importStudents(@RequestParam String file) {
+        return startTransfer(() -> studentService.startImport(file));
+    }
+
+    @PostMapping("/export")
+    public ResponseEntity<?> exportStudents(@RequestParam String file) {
+        return startTransfer(() -> studentService.startExport(file));
+    }
+
+    @GetMapping("/transfer")
+    public ResponseEntity<StudentTransferDto> getTransfer() {
+        StudentTransferDto transfer = studentService.getTransfer();
+        return transfer == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(transfer);
+    }
+
+    @GetMapping(params = "ids")
+    public CompletableFuture<ResponseEntity<?>> getStudents(@RequestParam List<Long> ids) {
+        if (ids.size() > Constant.MULTI_GET_MAX_IDS) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "At most " + Constant.MULTI_GET_MAX_IDS + " ids can be requested at once");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
+        }
+        return studentService.getStudentsByIdsAsync(ids)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
+                    log.error("Failed to retrieve {} students", ids.size(), ex);
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "Error retrieving students: " + ex.getMessage());
+                    return ResponseEntity.internalServerError().body(response);
+                });
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<StudentStatsDto> getStatistics() {
+        return ResponseEntity.ok(studentService.getStatistics());
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchStudents(@RequestParam(required = false) String prefix,
+                                                               @RequestParam(required = false) Integer minAge,
+                                                               @RequestParam(required = false) Integer maxAge,
+                                                               @RequestParam(defaultValue = "0") int offset,
+                                                               @RequestParam(defaultValue = "" + Constant.SEARCH_DEFAULT_LIMIT) int limit) {
+        if (!studentService.isSearchReady()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Search index is still loading, please retry later");
+            return CompletableFuture.completedFuture(ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Constant.RETRY_AFTER_SECONDS))
+                    .body(response));
+        }
+        return studentService.searchStudentsAsync(prefix, minAge, maxAge, offset, limit)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    Map<String, String> response = new HashMap<>();
+                    if (cause instanceof IllegalArgumentException) {
+                        response.put("message", cause.getMessage());
+                        return ResponseEntity.badRequest().body(response);
+                    }
+                    log.error("Failed to search students", ex);
+                    response.put("message", "Error searching students: " + ex.getMessage());
+                    return ResponseEntity.internalServerError().body(response);
+                });
+    }
+
+    /**
+     * Writes the student's cached JSON bytes as they are, see {@link StudentService#getStudentJsonAsync}.
+     */
     @GetMapping("/{id}/student")
-    public CompletableFuture<ResponseEntity<?>> getStudent(@PathVariable Long id) {
-        return studentService.getStudentByIdAsync(id)
+    public CompletableFuture<ResponseEntity<?>> getStudent(@PathVariable Long id,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return studentService.getStudentJsonAsync(id, ifNoneMatch)
                 .thenApply(student -> {
                     if (student == null) {
                         Map<String, String> response = new HashMap<>();
                         response.put("message", "Student with ID : " + id + " not found");
                         return ResponseEntity.status(404).body(response);
                     }
-                    return ResponseEntity.ok(student);
+                    Long version = student.getVersion();
+                    if (version == null) {
+                        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(student);
+                    }
+                    if (ifNoneMatch != null && EntityTags.anyMatches(ifNoneMatch, version)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(EntityTags.of(version)).build();
+                    }
+                    return ResponseEntity.ok().eTag(EntityTags.of(version)).contentType(MediaType.APPLICATION_JSON)
+                            .body(student);
                 })
                 .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
                     ex.printStackTrace();
                     Map<String, String> response = new HashMap<>();
                     response.put("message", "Error retrieving student: " + ex.getMessage());
@@ -52,27 +232,63 @@ public class StudentController {
                     if (savedStudent == null) {
                         return ResponseEntity.status(500).body("Error creating student: Student could not be saved");
                     }
-                    return ResponseEntity.ok(savedStudent);
+                    return ResponseEntity.ok().eTag(EntityTags.of(savedStudent)).body(savedStudent);
                 })
                 .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
                     ex.printStackTrace();
                     return ResponseEntity.internalServerError()
                             .body("Error creating student: " + ex.getMessage());
                 });
     }
 
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<?>> createStudents(@RequestBody List<StudentDto> studentDtos) {
+        if (studentDtos.size() > Constant.BATCH_MAX_SIZE) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Batch size must not exceed " + Constant.BATCH_MAX_SIZE);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
+        }
+        return studentService.saveStudentsBatchAsync(studentDtos)
+                .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
+                    log.error("Failed to create a batch of {} students", studentDtos.size(), ex);
+                    return ResponseEntity.internalServerError()
+                            .body("Error creating students: " + ex.getMessage());
+                });
+    }
+
     @PutMapping("/{id}/update-student")
-    public CompletableFuture<ResponseEntity<?>> updateStudent(@PathVariable Long id, @RequestBody Student student) {
-        return studentService.updateStudentAsync(id, student)
+    public CompletableFuture<ResponseEntity<?>> updateStudent(@PathVariable Long id, @RequestBody Student student,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = EntityTags.parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return CompletableFuture.completedFuture(preconditionFailed(id));
+            }
+        }
+        return studentService.updateStudentAsync(id, student, expectedVersion)
                 .thenApply(updatedStudent -> {
                     if (updatedStudent == null) {
                         Map<String, String> response = new HashMap<>();
                         response.put("message", "Student with ID " + id + " not found");
                         return ResponseEntity.status(404).body(response);  // Wrap the message in a map
                     }
-                    return ResponseEntity.ok(updatedStudent);
+                    return ResponseEntity.ok().eTag(EntityTags.of(updatedStudent)).body(updatedStudent);
                 })
                 .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
+                    if (isVersionConflict(ex)) {
+                        return preconditionFailed(id);
+                    }
                     ex.printStackTrace();
                     Map<String, String> response = new HashMap<>();
                     response.put("message", "Error updating student: " + ex.getMessage());
@@ -82,8 +298,16 @@ public class StudentController {
 
 
     @DeleteMapping("/{id}/delete-student")
-    public CompletableFuture<ResponseEntity<?>> deleteStudent(@PathVariable Long id) {
-        return studentService.deleteStudentAsync(id)
+    public CompletableFuture<ResponseEntity<?>> deleteStudent(@PathVariable Long id,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = EntityTags.parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return CompletableFuture.completedFuture(preconditionFailed(id));
+            }
+        }
+        return studentService.deleteStudentAsync(id, expectedVersion)
                 .thenApply(deleted -> {
                     if (deleted) {
                         return ResponseEntity.noContent().build();
@@ -91,9 +315,57 @@ public class StudentController {
                     return ResponseEntity.status(404).body("Student with ID " + id + " not found");
                 })
                 .exceptionally(ex -> {
+                    if (isOverloaded(ex)) {
+                        return overloaded();
+                    }
+                    if (isVersionConflict(ex)) {
+                        return preconditionFailed(id);
+                    }
                     ex.printStackTrace();
                     return ResponseEntity.internalServerError()
                             .body("Error deleting student: " + ex.getMessage());
                 });
     }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleRejectedExecution(RejectedExecutionException ex) {
+        return overloaded();
+    }
+
+    private static ResponseEntity<?> startTransfer(Supplier<StudentTransferDto> start) {
+        Map<String, String> response = new HashMap<>();
+        try {
+            return ResponseEntity.accepted().body(start.get());
+        } catch (IllegalArgumentException ex) {
+            response.put("message", ex.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException ex) {
+            response.put("message", ex.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+    }
+
+    private static boolean isOverloaded(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof RejectedExecutionException;
+    }
+
+    private static boolean isVersionConflict(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause instanceof StudentVersionConflictException;
+    }
+
+    private static ResponseEntity<?> preconditionFailed(Long id) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Student with ID " + id + " has been modified or removed");
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(response);
+    }
+
+    private static ResponseEntity<?> overloaded() {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Service is overloaded, please retry later");
+        return ResponseEntity.status(503)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Constant.RETRY_AFTER_SECONDS))
+                .body(response);
+    }
 }
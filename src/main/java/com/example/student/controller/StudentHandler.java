@@ -0,0 +1,246 @@
+package com.example.student.controller;
+
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.dtos.StudentDto;
+import com.example.student.dtos.StudentTransferDto;
+import com.example.student.entity.Student;
+import com.example.student.exception.StudentVersionConflictException;
+import com.example.student.service.ReactiveStudentService;
+import com.example.student.utils.Constant;
+import com.example.student.utils.EntityTags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * WebFlux handlers for the {@code reactive} profile, mirroring {@link StudentController} route for
+ * route, including status codes, error bodies and entity tags. List results are written as they
+ * stream out of the database, so a slow client applies back-pressure all the way to the query.
+ */
+@Component
+@Profile("reactive")
+public class StudentHandler {
+    private static final Logger log = LoggerFactory.getLogger(StudentHandler.class);
+
+    private static final ParameterizedTypeReference<List<StudentDto>> STUDENT_DTO_LIST =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private static final ParameterizedTypeReference<ServerSentEvent<StudentChangeEvent>> STUDENT_CHANGE_EVENTS =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final ReactiveStudentService studentService;
+
+    public StudentHandler(ReactiveStudentService studentService) {
+        this.studentService = studentService;
+    }
+
+    public Mono<ServerResponse> getAllStudents(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(studentService.getAllStudents(), Student.class);
+    }
+
+    public Mono<ServerResponse> getStudentsPage(ServerRequest request) {
+        Long after = request.queryParam("after").map(Long::valueOf).orElse(null);
+        int limit = request.queryParam("limit").map(Integer::valueOf).orElse(Constant.PAGE_DEFAULT_LIMIT);
+        return studentService.getStudentsPage(after, limit)
+                .flatMap(page -> ServerResponse.ok().bodyValue(page));
+    }
+
+    public Mono<ServerResponse> streamStudents(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(studentService.getAllStudents(), Student.class);
+    }
+
+    public Mono<ServerResponse> getStudents(ServerRequest request) {
+        List<Long> ids = new ArrayList<>();
+        for (String value : request.queryParams().getOrDefault("ids", List.of())) {
+            for (String id : value.split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(Long.valueOf(id.trim()));
+                }
+            }
+        }
+        if (ids.size() > Constant.MULTI_GET_MAX_IDS) {
+            return message(HttpStatus.BAD_REQUEST,
+                    "At most " + Constant.MULTI_GET_MAX_IDS + " ids can be requested at once");
+        }
+        return studentService.getStudentsByIds(ids)
+                .flatMap(students -> ServerResponse.ok().bodyValue(students))
+                .onErrorResume(ex -> error("Error retrieving students: ", ex));
+    }
+
+    public Mono<ServerResponse> streamChanges(ServerRequest request) {
+        String lastEventId = request.headers().firstHeader("Last-Event-ID");
+        Flux<ServerSentEvent<StudentChangeEvent>> changes;
+        try {
+            changes = studentService.streamChanges(lastEventId);
+        } catch (RejectedExecutionException ex) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Constant.RETRY_AFTER_SECONDS))
+                    .build();
+        }
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(changes, STUDENT_CHANGE_EVENTS);
+    }
+
+    public Mono<ServerResponse> importStudents(ServerRequest request) {
+        return startTransfer(() -> studentService.startImport(request.queryParam("file").orElse(null)));
+    }
+
+    public Mono<ServerResponse> exportStudents(ServerRequest request) {
+        return startTransfer(() -> studentService.startExport(request.queryParam("file").orElse(null)));
+    }
+
+    public Mono<ServerResponse> getTransfer(ServerRequest request) {
+        StudentTransferDto transfer = studentService.getTransfer();
+        return transfer == null ? ServerResponse.notFound().build() : ServerResponse.ok().bodyValue(transfer);
+    }
+
+    public Mono<ServerResponse> getStatistics(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(studentService.getStatistics());
+    }
+
+    public Mono<ServerResponse> searchStudents(ServerRequest request) {
+        if (!studentService.isSearchReady()) {
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Search index is still loading, please retry later");
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Constant.RETRY_AFTER_SECONDS))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(response);
+        }
+        String prefix = request.queryParam("prefix").orElse(null);
+        Integer minAge = request.queryParam("minAge").map(Integer::valueOf).orElse(null);
+        Integer maxAge = request.queryParam("maxAge").map(Integer::valueOf).orElse(null);
+        int offset = request.queryParam("offset").map(Integer::valueOf).orElse(0);
+        int limit = request.queryParam("limit").map(Integer::valueOf).orElse(Constant.SEARCH_DEFAULT_LIMIT);
+        return studentService.searchStudents(prefix, minAge, maxAge, offset, limit)
+                .flatMap(result -> ServerResponse.ok().bodyValue(result))
+                .onErrorResume(IllegalArgumentException.class, ex -> message(HttpStatus.BAD_REQUEST, ex.getMessage()))
+                .onErrorResume(ex -> error("Error searching students: ", ex));
+    }
+
+    public Mono<ServerResponse> getStudent(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        return studentService.getStudentJson(id, ifNoneMatch)
+                .flatMap(student -> {
+                    Long version = student.getVersion();
+                    if (version != null && ifNoneMatch != null && EntityTags.anyMatches(ifNoneMatch, version)) {
+                        return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(EntityTags.of(version)).build();
+                    }
+                    ServerResponse.BodyBuilder response = ServerResponse.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .contentLength(student.length());
+                    if (version != null) {
+                        response.eTag(EntityTags.of(version));
+                    }
+                    return response.body(BodyInserters.fromDataBuffers(
+                            Mono.just(DefaultDataBufferFactory.sharedInstance.wrap(student.asByteBuffer()))));
+                })
+                .switchIfEmpty(Mono.defer(() -> message(HttpStatus.NOT_FOUND, "Student with ID : " + id + " not found")))
+                .onErrorResume(ex -> error("Error retrieving student: ", ex));
+    }
+
+    public Mono<ServerResponse> createStudent(ServerRequest request) {
+        return request.bodyToMono(StudentDto.class)
+                .flatMap(studentService::saveStudent)
+                .flatMap(saved -> ServerResponse.ok().eTag(EntityTags.of(saved)).bodyValue(saved))
+                .onErrorResume(ex -> error("Error creating student: ", ex));
+    }
+
+    public Mono<ServerResponse> createStudents(ServerRequest request) {
+        return request.bodyToMono(STUDENT_DTO_LIST)
+                .flatMap(studentDtos -> {
+                    if (studentDtos.size() > Constant.BATCH_MAX_SIZE) {
+                        return message(HttpStatus.BAD_REQUEST, "Batch size must not exceed " + Constant.BATCH_MAX_SIZE);
+                    }
+                    return studentService.saveStudentsBatch(studentDtos)
+                            .collectList()
+                            .flatMap(saved -> ServerResponse.ok().bodyValue(saved));
+                })
+                .onErrorResume(ex -> error("Error creating students: ", ex));
+    }
+
+    public Mono<ServerResponse> updateStudent(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = EntityTags.parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return preconditionFailed(id);
+            }
+        }
+        Long version = expectedVersion;
+        return request.bodyToMono(Student.class)
+                .flatMap(student -> studentService.updateStudent(id, student, version))
+                .flatMap(updated -> ServerResponse.ok().eTag(EntityTags.of(updated)).bodyValue(updated))
+                .switchIfEmpty(Mono.defer(() -> message(HttpStatus.NOT_FOUND, "Student with ID " + id + " not found")))
+                .onErrorResume(StudentVersionConflictException.class, ex -> preconditionFailed(id))
+                .onErrorResume(ex -> error("Error updating student: ", ex));
+    }
+
+    public Mono<ServerResponse> deleteStudent(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        Long expectedVersion = null;
+        if (ifMatch != null && !"*".equals(ifMatch.trim())) {
+            expectedVersion = EntityTags.parseVersion(ifMatch);
+            if (expectedVersion == null) {
+                return preconditionFailed(id);
+            }
+        }
+        return studentService.deleteStudent(id, expectedVersion)
+                .flatMap(deleted -> deleted
+                        ? ServerResponse.noContent().build()
+                        : ServerResponse.status(HttpStatus.NOT_FOUND).bodyValue("Student with ID " + id + " not found"))
+                .onErrorResume(StudentVersionConflictException.class, ex -> preconditionFailed(id))
+                .onErrorResume(ex -> error("Error deleting student: ", ex));
+    }
+
+    private static Mono<ServerResponse> preconditionFailed(Long id) {
+        return message(HttpStatus.PRECONDITION_FAILED, "Student with ID " + id + " has been modified or removed");
+    }
+
+    private static Mono<ServerResponse> startTransfer(Supplier<StudentTransferDto> start) {
+        try {
+            return ServerResponse.accepted().bodyValue(start.get());
+        } catch (IllegalArgumentException ex) {
+            return message(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (IllegalStateException ex) {
+            return message(HttpStatus.CONFLICT, ex.getMessage());
+        }
+    }
+
+    private static Mono<ServerResponse> error(String prefix, Throwable ex) {
+        log.error("{}{}", prefix, ex.getMessage(), ex);
+        return message(HttpStatus.INTERNAL_SERVER_ERROR, prefix + ex.getMessage());
+    }
+
+    private static Mono<ServerResponse> message(HttpStatus status, String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", message);
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(response);
+    }
+}
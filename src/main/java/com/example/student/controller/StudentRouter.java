@@ -0,0 +1,39 @@
+package com.example.student.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * The {@code /students} routes of {@link StudentController}, served by {@link StudentHandler}.
+ */
+@Configuration
+@Profile("reactive")
+public class StudentRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> studentRoutes(StudentHandler handler) {
+        return RouterFunctions.route()
+                .path("/students", builder -> builder
+                        .GET("/all-students", handler::getAllStudents)
+                        .GET("/page", handler::getStudentsPage)
+                        .GET("/stream", handler::streamStudents)
+                        .GET("/search", handler::searchStudents)
+                        .GET("/stats", handler::getStatistics)
+                        .GET("/changes", handler::streamChanges)
+                        .GET("/transfer", handler::getTransfer)
+                        .POST("/import", handler::importStudents)
+                        .POST("/export", handler::exportStudents)
+                        .GET("", RequestPredicates.queryParam("ids", ids -> true), handler::getStudents)
+                        .GET("/{id}/student", handler::getStudent)
+                        .POST("/add-student", handler::createStudent)
+                        .POST("/batch", handler::createStudents)
+                        .PUT("/{id}/update-student", handler::updateStudent)
+                        .DELETE("/{id}/delete-student", handler::deleteStudent))
+                .build();
+    }
+}
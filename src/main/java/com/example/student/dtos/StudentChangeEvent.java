@@ -0,0 +1,95 @@
+package com.example.student.dtos;
+
+import com.example.student.entity.Student;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class StudentChangeEvent {
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private String type;
+    private Long id;
+    private Long version;
+    private Student student;
+    private long timestamp;
+    @JsonIgnore
+    private long sequence;
+    @JsonIgnore
+    private long receivedAt;
+
+    public StudentChangeEvent() {
+    }
+
+    public StudentChangeEvent(String type, Long id, Long version, Student student, long timestamp) {
+        this.type = type;
+        this.id = id;
+        this.version = version;
+        this.student = student;
+        this.timestamp = timestamp;
+    }
+
+    public static StudentChangeEvent of(String type, Student student) {
+        return new StudentChangeEvent(type, student.getId(), student.getVersion(), student, System.currentTimeMillis());
+    }
+
+    public static StudentChangeEvent deleted(Long id) {
+        return new StudentChangeEvent(DELETED, id, null, null, System.currentTimeMillis());
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Student getStudent() {
+        return student;
+    }
+
+    public void setStudent(Student student) {
+        this.student = student;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    public void setReceivedAt(long receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+}
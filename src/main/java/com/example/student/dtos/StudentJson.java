@@ -0,0 +1,106 @@
+package com.example.student.dtos;
+
+import com.example.student.entity.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A student as the exact JSON the API returns for it, kept as bytes so a cache hit can be written
+ * to the response without building a {@link Student} and serializing it again.
+ * <p>
+ * This is also the Redis value layout of the {@code passthrough} cache codec: magic {@code 0xB8},
+ * the version as int64 ({@code Long.MIN_VALUE} for null), then the JSON. The version sits outside
+ * the JSON so the entity tag can be set without parsing it.
+ */
+public final class StudentJson {
+    public static final byte MAGIC = (byte) 0xB8;
+    private static final int HEADER_LENGTH = 9;
+    private static final long NULL_VERSION = Long.MIN_VALUE;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectWriter WRITER = MAPPER.writerFor(Student.class);
+    private static final ObjectReader READER = MAPPER.readerFor(Student.class);
+
+    private final byte[] record;
+
+    private StudentJson(byte[] record) {
+        this.record = record;
+    }
+
+    public static StudentJson of(Student student) {
+        return new StudentJson(encode(student));
+    }
+
+    /**
+     * Just the version, with no JSON, for a lookup the caller answers with 304 Not Modified.
+     */
+    public static StudentJson versionOnly(Long version) {
+        return new StudentJson(ByteBuffer.allocate(HEADER_LENGTH)
+                .put(MAGIC)
+                .putLong(version == null ? NULL_VERSION : version)
+                .array());
+    }
+
+    /**
+     * The cache record for {@code student}.
+     */
+    public static byte[] encode(Student student) {
+        byte[] json;
+        try {
+            json = WRITER.writeValueAsBytes(student);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return ByteBuffer.allocate(HEADER_LENGTH + json.length)
+                .put(MAGIC)
+                .putLong(student.getVersion() == null ? NULL_VERSION : student.getVersion())
+                .put(json)
+                .array();
+    }
+
+    /**
+     * Wraps a cache record without copying it, or returns null when {@code bytes} is not one.
+     */
+    public static StudentJson wrap(byte[] bytes) {
+        return bytes != null && bytes.length > HEADER_LENGTH && bytes[0] == MAGIC ? new StudentJson(bytes) : null;
+    }
+
+    public Long getVersion() {
+        long version = ByteBuffer.wrap(record, 1, 8).getLong();
+        return version == NULL_VERSION ? null : version;
+    }
+
+    /**
+     * Length of the JSON, which is what goes into {@code Content-Length}.
+     */
+    public int length() {
+        return record.length - HEADER_LENGTH;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(record, HEADER_LENGTH, length());
+    }
+
+    /**
+     * The JSON as a read-only view over the record.
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(record, HEADER_LENGTH, length()).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * Parses the JSON back into a student, for readers that need the entity.
+     */
+    public Student toStudent() {
+        try {
+            return READER.readValue(record, HEADER_LENGTH, length());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
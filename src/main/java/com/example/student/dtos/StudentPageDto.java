@@ -0,0 +1,31 @@
+package com.example.student.dtos;
+
+import com.example.student.entity.Student;
+
+import java.util.List;
+
+public class StudentPageDto {
+    private List<Student> students;
+    private Long nextAfter;
+
+    public StudentPageDto(List<Student> students, Long nextAfter) {
+        this.students = students;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<Student> students) {
+        this.students = students;
+    }
+
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(Long nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+}
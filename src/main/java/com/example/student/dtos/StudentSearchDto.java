@@ -0,0 +1,31 @@
+package com.example.student.dtos;
+
+import com.example.student.entity.Student;
+
+import java.util.List;
+
+public class StudentSearchDto {
+    private List<Student> students;
+    private Integer nextOffset;
+
+    public StudentSearchDto(List<Student> students, Integer nextOffset) {
+        this.students = students;
+        this.nextOffset = nextOffset;
+    }
+
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    public void setStudents(List<Student> students) {
+        this.students = students;
+    }
+
+    public Integer getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(Integer nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+}
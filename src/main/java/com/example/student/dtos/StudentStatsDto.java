@@ -0,0 +1,71 @@
+package com.example.student.dtos;
+
+import java.time.Instant;
+import java.util.SortedMap;
+
+public class StudentStatsDto {
+    private long count;
+    private Integer minAge;
+    private Integer maxAge;
+    private Double meanAge;
+    private SortedMap<Integer, Long> ageHistogram;
+    private Instant reconciledAt;
+
+    public StudentStatsDto(long count, Integer minAge, Integer maxAge, Double meanAge,
+                           SortedMap<Integer, Long> ageHistogram, Instant reconciledAt) {
+        this.count = count;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.meanAge = meanAge;
+        this.ageHistogram = ageHistogram;
+        this.reconciledAt = reconciledAt;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public void setMinAge(Integer minAge) {
+        this.minAge = minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Integer maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public Double getMeanAge() {
+        return meanAge;
+    }
+
+    public void setMeanAge(Double meanAge) {
+        this.meanAge = meanAge;
+    }
+
+    public SortedMap<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    public void setAgeHistogram(SortedMap<Integer, Long> ageHistogram) {
+        this.ageHistogram = ageHistogram;
+    }
+
+    public Instant getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public void setReconciledAt(Instant reconciledAt) {
+        this.reconciledAt = reconciledAt;
+    }
+}
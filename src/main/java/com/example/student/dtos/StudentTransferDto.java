@@ -0,0 +1,116 @@
+package com.example.student.dtos;
+
+import java.time.Instant;
+
+public class StudentTransferDto {
+    public static final String IMPORT = "import";
+    public static final String EXPORT = "export";
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private String type;
+    private String file;
+    private String state;
+    private Long totalBytes;
+    private long processedBytes;
+    private long students;
+    private long rejected;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String message;
+
+    public StudentTransferDto(String type, String file, String state, Long totalBytes, long processedBytes,
+                              long students, long rejected, Instant startedAt, Instant finishedAt, String message) {
+        this.type = type;
+        this.file = file;
+        this.state = state;
+        this.totalBytes = totalBytes;
+        this.processedBytes = processedBytes;
+        this.students = students;
+        this.rejected = rejected;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.message = message;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(Long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getProcessedBytes() {
+        return processedBytes;
+    }
+
+    public void setProcessedBytes(long processedBytes) {
+        this.processedBytes = processedBytes;
+    }
+
+    public long getStudents() {
+        return students;
+    }
+
+    public void setStudents(long students) {
+        this.students = students;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
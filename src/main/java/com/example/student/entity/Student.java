@@ -1,6 +1,10 @@
 package com.example.student.entity;
 
+import com.example.student.utils.Constant;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -8,9 +12,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name="students")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constant.STUDENT_CACHE_REGION)
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @SequenceGenerator(name = "student_seq", sequenceName = "students_seq", allocationSize = Constant.STUDENT_ID_ALLOCATION_SIZE)
     private Long id;
     @Column(name = "name", nullable = false)
     private String name;
@@ -22,6 +29,25 @@ public class Student {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    public Student() {
+    }
+
+    /**
+     * For read-only projections: queries that build students with {@code select new} hand out
+     * plain objects the persistence context never tracks.
+     */
+    public Student(Long id, String name, int age, Long version) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -40,4 +66,10 @@ public class Student {
     public void setId(Long id) {
         this.id = id;
     }
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
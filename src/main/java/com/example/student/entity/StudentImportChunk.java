@@ -0,0 +1,60 @@
+package com.example.student.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Marks one chunk of a bulk import as committed. Written in the same transaction as the chunk's
+ * students, so a resumed import never inserts a chunk twice.
+ */
+@Entity
+@Table(name = "student_import_chunks")
+@IdClass(StudentImportChunk.Key.class)
+public class StudentImportChunk {
+    @Id
+    @Column(name = "import_key", length = 36, nullable = false)
+    private String importKey;
+    @Id
+    @Column(name = "chunk_index", nullable = false)
+    private int chunk;
+
+    public StudentImportChunk() {
+    }
+
+    public StudentImportChunk(String importKey, int chunk) {
+        this.importKey = importKey;
+        this.chunk = chunk;
+    }
+
+    public String getImportKey() {
+        return importKey;
+    }
+    public int getChunk() {
+        return chunk;
+    }
+
+    public static class Key implements Serializable {
+        private String importKey;
+        private int chunk;
+
+        public Key() {
+        }
+
+        public Key(String importKey, int chunk) {
+            this.importKey = importKey;
+            this.chunk = chunk;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && chunk == key.chunk && Objects.equals(importKey, key.importKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(importKey, chunk);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.student.exception;
+
+/**
+ * Thrown when a conditional write names a version the student no longer has, or a student that no
+ * longer exists. The controller turns it into {@code 412 Precondition Failed}.
+ */
+public class StudentVersionConflictException extends RuntimeException {
+
+    private final Long studentId;
+    private final Long expectedVersion;
+
+    public StudentVersionConflictException(Long studentId, Long expectedVersion) {
+        super("Student with ID " + studentId + " is not at version " + expectedVersion);
+        this.studentId = studentId;
+        this.expectedVersion = expectedVersion;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public Long getExpectedVersion() {
+        return expectedVersion;
+    }
+}
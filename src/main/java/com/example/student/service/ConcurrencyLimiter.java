@@ -0,0 +1,182 @@
+package com.example.student.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive limit on concurrent Redis and database calls made by {@link StudentService}, in the
+ * style of Netflix's Gradient2 limiter. The limit follows the ratio between a long-term and a
+ * short-term average of call latency: when calls slow down relative to their usual latency it
+ * shrinks, and while latency holds steady it grows by roughly the square root of the limit per
+ * window. Calls over the limit are rejected at once with a {@link RejectedExecutionException},
+ * which the controller turns into 503, instead of queueing behind a slow database.
+ * <p>
+ * {@link Priority#LOW} work (database loads and writes) may only use {@code low-priority-share}
+ * of the limit; the rest is kept for {@link Priority#HIGH} work (cache reads), so cache hits are
+ * still served when the database is the bottleneck.
+ * <p>
+ * Each priority's calls go to one downstream, Redis or the database, and each keeps its own
+ * latency averages, so a flood of sub-millisecond cache hits cannot hide a slowing database.
+ * Calls only add their latency to lock-free per-window sums; once every 100 ms the
+ * first call to finish after the window closed folds the sums into the averages and moves the
+ * limit, following whichever downstream slowed down most.
+ */
+@Component
+public class ConcurrencyLimiter implements MeterBinder {
+
+    public enum Priority { HIGH, LOW }
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOWS = 100;
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double lowPriorityShare;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+    private final Map<Priority, Downstream> downstreams = new EnumMap<>(Priority.class);
+    private final AtomicLong windowEnd = new AtomicLong(System.nanoTime() + WINDOW_NANOS);
+
+    private volatile double limit;
+
+    @Autowired
+    public ConcurrencyLimiter(@Value("${student.limiter.initial-limit:20}") int initialLimit,
+                              @Value("${student.limiter.min-limit:4}") int minLimit,
+                              @Value("${student.limiter.max-limit:500}") int maxLimit,
+                              @Value("${student.limiter.low-priority-share:0.8}") double lowPriorityShare) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.lowPriorityShare = lowPriorityShare;
+        for (Priority priority : Priority.values()) {
+            downstreams.put(priority, new Downstream());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("student.limiter.limit", this, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(registry);
+        Gauge.builder("student.limiter.inflight", inFlight, AtomicInteger::get)
+                .description("Calls currently holding a limiter permit")
+                .register(registry);
+        for (Priority priority : Priority.values()) {
+            rejections.put(priority, Counter.builder("student.limiter.rejected")
+                    .description("Calls rejected by the concurrency limiter")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    public <T> T execute(Priority priority, Supplier<T> call) {
+        int allowed = priority == Priority.HIGH ? (int) limit : Math.max(1, (int) (limit * lowPriorityShare));
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= allowed) {
+                Counter rejected = rejections.get(priority);
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                throw new RejectedExecutionException("Concurrency limit of " + allowed + " reached");
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(priority, System.nanoTime() - start, current + 1);
+        }
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    void onSample(Priority priority, long rttNanos, int inFlightAtStart) {
+        downstreams.get(priority).add(rttNanos, inFlightAtStart);
+        long end = windowEnd.get();
+        long now = System.nanoTime();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + WINDOW_NANOS)) {
+            updateLimit();
+        }
+    }
+
+    /**
+     * Closes the current window. Only the caller that moved {@code windowEnd} runs this, and the
+     * next window is far off by then, so updates never overlap.
+     */
+    void updateLimit() {
+        double gradient = 1.0;
+        int maxInFlight = 0;
+        for (Downstream downstream : downstreams.values()) {
+            long count = downstream.count.sumThenReset();
+            long rttNanos = downstream.rttNanos.sumThenReset();
+            maxInFlight = Math.max(maxInFlight, (int) downstream.maxInFlight.getThenReset());
+            if (count > 0) {
+                gradient = Math.min(gradient, downstream.gradient((double) rttNanos / count));
+            }
+        }
+        // An underused limit says nothing about capacity.
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+        double target = limit * gradient + Math.sqrt(limit);
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    private static final class Downstream {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder rttNanos = new LongAdder();
+        private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+
+        private volatile double longRttNanos;
+
+        void add(long rttNanos, int inFlightAtStart) {
+            this.rttNanos.add(rttNanos);
+            count.increment();
+            maxInFlight.accumulate(inFlightAtStart);
+        }
+
+        /**
+         * Folds a window's mean latency into the long-term average and returns how far below it
+         * (1.0 when steady, down to 0.5) the window was.
+         */
+        double gradient(double shortRttNanos) {
+            double longRtt = longRttNanos;
+            if (longRtt == 0) {
+                longRttNanos = shortRttNanos;
+                return 1.0;
+            }
+            longRtt += (shortRttNanos - longRtt) / LONG_WINDOWS;
+            // After a long stretch of high latency, let the baseline recover instead of pinning the limit low.
+            if (longRtt / shortRttNanos > 2) {
+                longRtt *= 0.95;
+            }
+            longRttNanos = longRtt;
+            return Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRttNanos));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.student.service;
+
+import com.example.student.utils.Constant;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent database work at the size of the Hikari pool. With virtual threads the
+ * executor no longer limits concurrency, so callers park here (cheaply) instead of piling up
+ * inside Hikari, and give up with a {@link RejectedExecutionException} after
+ * {@link Constant#BULKHEAD_WAIT_MILLIS} rather than waiting out the pool's connection timeout.
+ */
+@Component
+public class DatabaseBulkhead implements MeterBinder {
+
+    private final Semaphore permits;
+
+    @Autowired
+    public DatabaseBulkhead(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConcurrentCalls) {
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("student.db.bulkhead.available", permits, Semaphore::availablePermits)
+                .description("Free database permits")
+                .register(registry);
+        Gauge.builder("student.db.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .description("Callers waiting for a database permit")
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(Constant.BULKHEAD_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a database permit", ex);
+        }
+        if (!acquired) {
+            throw new RejectedExecutionException("Database bulkhead is full");
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.student.service;
+
+import com.example.student.utils.Constant;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The worker lanes {@link StudentService} runs its work on. Each {@link Lane} has its own workers
+ * and its own bounded queue, so a burst of writes or of slow database loads cannot hold up cache
+ * reads, which make up most of the traffic and finish in a millisecond or two.
+ * <p>
+ * Within a lane, {@link Priority#HIGH} tasks (a request is waiting on them) are taken before
+ * {@link Priority#LOW} ones (batch inserts, the database half of multi-gets, refresh-ahead,
+ * cache warming). LOW tasks may only fill {@code low-priority-share} of a lane's queue, keeping
+ * the rest free for HIGH ones, and a LOW task that has waited {@code max-queue-wait-ms} is taken
+ * ahead of HIGH work so a steady stream of requests cannot starve it. A task that finds its lane
+ * full is rejected with a {@link RejectedExecutionException}, which the controller turns into 503.
+ * <p>
+ * {@code student.executor.mode} picks the workers' threads: {@code virtual} (default) or
+ * {@code platform}. Either way a lane never runs more tasks at once than it has workers.
+ */
+@Component
+public class ExecutionLanes implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(ExecutionLanes.class);
+
+    public enum Lane { CACHE_READ, DATABASE_READ, WRITE }
+
+    public enum Priority { HIGH, LOW }
+
+    private final Map<Lane, Pool> pools = new EnumMap<>(Lane.class);
+
+    /**
+     * Sizes the database lanes from the Hikari pool unless their worker counts are set: a quarter
+     * of the pool (at least one) writes and the rest reads, so busy lanes never ask for more
+     * connections than the pool has and no worker sits blocked in {@link DatabaseBulkhead}.
+     */
+    @Autowired
+    public ExecutionLanes(@Value("${student.executor.mode:virtual}") String mode,
+                          @Value("${student.executor.cache-read.workers:16}") int cacheReadWorkers,
+                          @Value("${student.executor.cache-read.queue-capacity:1000}") int cacheReadQueueCapacity,
+                          @Value("${student.executor.database-read.workers:0}") int databaseReadWorkers,
+                          @Value("${student.executor.database-read.queue-capacity:500}") int databaseReadQueueCapacity,
+                          @Value("${student.executor.write.workers:0}") int writeWorkers,
+                          @Value("${student.executor.write.queue-capacity:500}") int writeQueueCapacity,
+                          @Value("${student.executor.low-priority-share:0.5}") double lowPriorityShare,
+                          @Value("${student.executor.max-queue-wait-ms:50}") long maxQueueWaitMillis,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int databasePoolSize) {
+        this(mode, cacheReadWorkers, cacheReadQueueCapacity,
+                databaseReadWorkers > 0 ? databaseReadWorkers
+                        : Math.max(1, databasePoolSize - writeWorkers(writeWorkers, databasePoolSize)),
+                databaseReadQueueCapacity, writeWorkers(writeWorkers, databasePoolSize), writeQueueCapacity,
+                lowPriorityShare, maxQueueWaitMillis);
+    }
+
+    public ExecutionLanes(String mode, int cacheReadWorkers, int cacheReadQueueCapacity, int databaseReadWorkers,
+                          int databaseReadQueueCapacity, int writeWorkers, int writeQueueCapacity,
+                          double lowPriorityShare, long maxQueueWaitMillis) {
+        boolean virtual = !"platform".equalsIgnoreCase(mode);
+        long maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        pools.put(Lane.CACHE_READ, new Pool(Lane.CACHE_READ, virtual, cacheReadWorkers, cacheReadQueueCapacity,
+                lowPriorityShare, maxQueueWaitNanos));
+        pools.put(Lane.DATABASE_READ, new Pool(Lane.DATABASE_READ, virtual, databaseReadWorkers,
+                databaseReadQueueCapacity, lowPriorityShare, maxQueueWaitNanos));
+        pools.put(Lane.WRITE, new Pool(Lane.WRITE, virtual, writeWorkers, writeQueueCapacity,
+                lowPriorityShare, maxQueueWaitNanos));
+        log.info("Execution lanes on {} threads: {} cache read, {} database read and {} write workers",
+                virtual ? "virtual" : "platform", cacheReadWorkers, databaseReadWorkers, writeWorkers);
+    }
+
+    private static int writeWorkers(int configured, int databasePoolSize) {
+        return configured > 0 ? configured : Math.max(1, databasePoolSize / 4);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        pools.values().forEach(pool -> pool.bindTo(registry));
+    }
+
+    /**
+     * Queues {@code task} on {@code lane}, or throws a {@link RejectedExecutionException} when the
+     * lane has no room left for {@code priority}.
+     */
+    public void execute(Lane lane, Priority priority, Runnable task) {
+        pools.get(lane).offer(priority, task);
+    }
+
+    public <T> CompletableFuture<T> supply(Lane lane, Priority priority, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor(lane, priority));
+    }
+
+    /**
+     * {@code lane} as a plain {@link Executor}, for APIs that take one.
+     */
+    public Executor executor(Lane lane, Priority priority) {
+        Pool pool = pools.get(lane);
+        return task -> pool.offer(priority, task);
+    }
+
+    /**
+     * Stops taking tasks and gives the queued ones up to {@link Constant#BULKHEAD_WAIT_MILLIS} to
+     * finish.
+     */
+    @PreDestroy
+    public void shutdown() {
+        pools.values().forEach(Pool::shutdown);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Constant.BULKHEAD_WAIT_MILLIS);
+        try {
+            for (Pool pool : pools.values()) {
+                pool.awaitTermination(deadline);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int queued(Lane lane, Priority priority) {
+        return pools.get(lane).queued(priority);
+    }
+
+    private static final class Pool {
+
+        private final Lane lane;
+        private final int capacity;
+        private final int lowPriorityCapacity;
+        private final long maxQueueWaitNanos;
+        private final ArrayDeque<Task> high = new ArrayDeque<>();
+        private final ArrayDeque<Task> low = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final List<Thread> workers = new ArrayList<>();
+        private final AtomicInteger active = new AtomicInteger();
+        private final Map<Priority, Counter> rejections = new EnumMap<>(Priority.class);
+        private final Map<Priority, Timer> waits = new EnumMap<>(Priority.class);
+
+        private boolean shutdown;
+        private Counter promotions;
+
+        Pool(Lane lane, boolean virtual, int workerCount, int capacity, double lowPriorityShare,
+             long maxQueueWaitNanos) {
+            this.lane = lane;
+            this.capacity = Math.max(1, capacity);
+            this.lowPriorityCapacity = Math.max(1, (int) (this.capacity * lowPriorityShare));
+            this.maxQueueWaitNanos = maxQueueWaitNanos;
+            String name = "student-" + lane.name().toLowerCase().replace('_', '-') + "-";
+            ThreadFactory threads = virtual
+                    ? Thread.ofVirtual().name(name, 0).factory()
+                    : Thread.ofPlatform().daemon().name(name, 0).factory();
+            for (int i = 0; i < Math.max(1, workerCount); i++) {
+                Thread worker = threads.newThread(this::work);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+
+        void bindTo(MeterRegistry registry) {
+            String tag = lane.name().toLowerCase();
+            for (Priority priority : Priority.values()) {
+                String priorityTag = priority.name().toLowerCase();
+                Gauge.builder("student.executor.queued", this, pool -> pool.queued(priority))
+                        .description("Tasks waiting in an execution lane")
+                        .tags("lane", tag, "priority", priorityTag)
+                        .register(registry);
+                rejections.put(priority, Counter.builder("student.executor.rejected")
+                        .description("Tasks rejected because their lane was full")
+                        .tags("lane", tag, "priority", priorityTag)
+                        .register(registry));
+                waits.put(priority, Timer.builder("student.executor.queue.wait")
+                        .description("Time tasks spent queued before a worker took them")
+                        .tags("lane", tag, "priority", priorityTag)
+                        .register(registry));
+            }
+            Gauge.builder("student.executor.active", active, AtomicInteger::get)
+                    .description("Tasks running in an execution lane")
+                    .tag("lane", tag)
+                    .register(registry);
+            promotions = Counter.builder("student.executor.promoted")
+                    .description("Low priority tasks taken ahead of high priority ones after waiting too long")
+                    .tag("lane", tag)
+                    .register(registry);
+        }
+
+        void offer(Priority priority, Runnable runnable) {
+            lock.lock();
+            try {
+                int queued = high.size() + low.size();
+                if (shutdown || queued >= (priority == Priority.HIGH ? capacity : lowPriorityCapacity)) {
+                    Counter rejected = rejections.get(priority);
+                    if (rejected != null) {
+                        rejected.increment();
+                    }
+                    throw new RejectedExecutionException(shutdown ? lane + " lane is shut down"
+                            : lane + " lane is full for " + priority + " priority work");
+                }
+                (priority == Priority.HIGH ? high : low).add(new Task(runnable, priority, System.nanoTime()));
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void work() {
+            Task task;
+            while ((task = take()) != null) {
+                Timer wait = waits.get(task.priority());
+                if (wait != null) {
+                    wait.record(System.nanoTime() - task.queuedAt(), TimeUnit.NANOSECONDS);
+                }
+                active.incrementAndGet();
+                try {
+                    task.runnable().run();
+                } catch (Throwable ex) {
+                    log.error("Task failed on the {} lane", lane, ex);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * The next task, or null once the lane is shut down and drained.
+         */
+        private Task take() {
+            lock.lock();
+            try {
+                while (high.isEmpty() && low.isEmpty()) {
+                    if (shutdown) {
+                        return null;
+                    }
+                    available.awaitUninterruptibly();
+                }
+                Task oldestLow = low.peek();
+                if (oldestLow == null) {
+                    return high.poll();
+                }
+                if (high.isEmpty()) {
+                    return low.poll();
+                }
+                if (System.nanoTime() - oldestLow.queuedAt() >= maxQueueWaitNanos) {
+                    if (promotions != null) {
+                        promotions.increment();
+                    }
+                    return low.poll();
+                }
+                return high.poll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int queued(Priority priority) {
+            lock.lock();
+            try {
+                return (priority == Priority.HIGH ? high : low).size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void shutdown() {
+            lock.lock();
+            try {
+                shutdown = true;
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void awaitTermination(long deadlineNanos) throws InterruptedException {
+            for (Thread worker : workers) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0 || !worker.join(Duration.ofNanos(remaining))) {
+                    log.warn("{} lane did not drain before shutdown", lane);
+                    return;
+                }
+            }
+        }
+    }
+
+    private record Task(Runnable runnable, Priority priority, long queuedAt) {
+    }
+}
@@ -0,0 +1,485 @@
+package com.example.student.service;
+
+import com.example.student.Repository.ReactiveStudentRepository;
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.dtos.StudentDto;
+import com.example.student.dtos.StudentJson;
+import com.example.student.dtos.StudentPageDto;
+import com.example.student.dtos.StudentSearchDto;
+import com.example.student.dtos.StudentStatsDto;
+import com.example.student.dtos.StudentTransferDto;
+import com.example.student.entity.Student;
+import com.example.student.exception.StudentVersionConflictException;
+import com.example.student.utils.Constant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking counterpart of {@link StudentService} for the {@code reactive} profile: R2DBC for the
+ * database and {@link ReactiveRedisTemplate} for the cache, with the same keys, TTLs, tombstones,
+ * versioning and near-cache invalidation messages, so both stacks can share one Redis and database.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveStudentService {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveStudentService.class);
+
+    private static final Duration STUDENT_TTL = Duration.ofMinutes(Constant.REDIS_EXPIRY_TIME);
+    private static final Duration TOMBSTONE_TTL = Duration.ofSeconds(Constant.TOMBSTONE_EXPIRY_SECONDS);
+    private static final Object NOT_CACHED = new Object();
+
+    private final ReactiveStudentRepository studentRepository;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final StudentNearCache nearCache;
+    private final StudentSearchIndex searchIndex;
+    private final StudentStatistics statistics;
+    private final StudentHotKeys hotKeys;
+    private final StudentChangeFeed changeFeed;
+    private final StudentBulkTransfer bulkTransfer;
+    private final String instanceId = "reactive-" + UUID.randomUUID();
+    private final Sinks.Empty<Void> closing = Sinks.empty();
+
+    public ReactiveStudentService(ReactiveStudentRepository studentRepository,
+                                  ReactiveRedisTemplate<String, Object> reactiveRedisTemplate,
+                                  ReactiveStringRedisTemplate stringRedisTemplate, StudentNearCache nearCache,
+                                  StudentSearchIndex searchIndex, StudentStatistics statistics,
+                                  StudentHotKeys hotKeys, StudentChangeFeed changeFeed,
+                                  StudentBulkTransfer bulkTransfer) {
+        this.studentRepository = studentRepository;
+        this.redisTemplate = reactiveRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.nearCache = nearCache;
+        this.searchIndex = searchIndex;
+        this.statistics = statistics;
+        this.hotKeys = hotKeys;
+        this.changeFeed = changeFeed;
+        this.bulkTransfer = bulkTransfer;
+    }
+
+    public Flux<Student> getAllStudents() {
+        return studentRepository.findAll(Constant.STREAM_FETCH_SIZE);
+    }
+
+    public Mono<StudentPageDto> getStudentsPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, Constant.PAGE_MAX_LIMIT));
+        return studentRepository.findByIdGreaterThan(after == null ? 0L : after, pageSize)
+                .collectList()
+                .map(students -> new StudentPageDto(students,
+                        students.size() < pageSize ? null : students.get(students.size() - 1).getId()));
+    }
+
+    public Mono<Student> getStudentById(Long id) {
+        hotKeys.record(id);
+        Student nearCached = nearCache.get(id);
+        if (nearCached != null) {
+            return Mono.just(nearCached);
+        }
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        return redisTemplate.opsForValue().get(cacheKey)
+                .defaultIfEmpty(NOT_CACHED)
+                .flatMap(cached -> resolveCached(id, cached));
+    }
+
+    /**
+     * Same lookup as {@link #getStudentById}, returning the student as response-ready JSON. With the
+     * {@code passthrough} cache codec a Redis hit is the cached bytes as they are, never decoded.
+     * Near cache hits reuse the entry's JSON, or carry only the version when {@code ifNoneMatch}
+     * names it, see {@link StudentNearCache#getJson}.
+     */
+    public Mono<StudentJson> getStudentJson(Long id, String ifNoneMatch) {
+        hotKeys.record(id);
+        StudentJson nearCached = nearCache.getJson(id, ifNoneMatch);
+        if (nearCached != null) {
+            return Mono.just(nearCached);
+        }
+        ByteBuffer cacheKey = ByteBuffer.wrap((Constant.STUDENT_KEY_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+        return redisTemplate.execute(connection -> connection.stringCommands().get(cacheKey))
+                .next()
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    StudentJson json = StudentJson.wrap(bytes);
+                    return json != null ? json
+                            : redisTemplate.getSerializationContext().getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+                })
+                .defaultIfEmpty(NOT_CACHED)
+                .flatMap(cached -> cached instanceof StudentJson json ? Mono.just(json)
+                        : resolveCached(id, cached).map(StudentJson::of));
+    }
+
+    private Mono<Student> resolveCached(Long id, Object cached) {
+        if (cached instanceof Student student) {
+            nearCache.put(student);
+            return Mono.just(student);
+        }
+        if (Constant.STUDENT_TOMBSTONE.equals(cached)) {
+            log.debug("Tombstone hit for student with id: {}", id);
+            return Mono.empty();
+        }
+        return load(id);
+    }
+
+    /**
+     * Fills the cache with NX: a writer that cached a newer version while the row was being read
+     * keeps it, and the row read here is then not kept in the near cache either.
+     */
+    private Mono<Student> load(Long id) {
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        return studentRepository.findById(id)
+                .flatMap(student -> redisTemplate.opsForValue().setIfAbsent(cacheKey, student, STUDENT_TTL)
+                        .doOnNext(stored -> {
+                            if (stored) {
+                                nearCache.put(student);
+                            }
+                        })
+                        .thenReturn(student))
+                .switchIfEmpty(Mono.defer(() -> redisTemplate.opsForValue()
+                        .setIfAbsent(cacheKey, Constant.STUDENT_TOMBSTONE, TOMBSTONE_TTL)
+                        .then(Mono.empty())));
+    }
+
+    /**
+     * Same lookup order as {@link StudentService#getStudentsByIdsAsync}: near cache, one MGET, one
+     * IN query for the rest, then the loaded students and tombstones for unknown ids go back to Redis.
+     */
+    public Mono<List<Student>> getStudentsByIds(List<Long> ids) {
+        Map<Long, Student> found = new HashMap<>();
+        List<Long> remaining = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            hotKeys.record(id);
+            Student nearCached = nearCache.get(id);
+            if (nearCached != null) {
+                found.put(id, nearCached);
+            } else {
+                remaining.add(id);
+            }
+        }
+        if (remaining.isEmpty()) {
+            return Mono.just(inRequestOrder(ids, found));
+        }
+
+        List<String> cacheKeys = new ArrayList<>(remaining.size());
+        for (Long id : remaining) {
+            cacheKeys.add(Constant.STUDENT_KEY_PREFIX + id);
+        }
+        return redisTemplate.opsForValue().multiGet(cacheKeys)
+                .flatMap(cachedStudents -> {
+                    List<Long> misses = new ArrayList<>();
+                    for (int i = 0; i < remaining.size(); i++) {
+                        Object cached = cachedStudents.get(i);
+                        if (cached instanceof Student student) {
+                            found.put(student.getId(), student);
+                            nearCache.put(student);
+                        } else if (!Constant.STUDENT_TOMBSTONE.equals(cached)) {
+                            misses.add(remaining.get(i));
+                        }
+                    }
+                    if (misses.isEmpty()) {
+                        return Mono.just(inRequestOrder(ids, found));
+                    }
+                    return studentRepository.findAllById(misses)
+                            .collectList()
+                            .flatMap(loaded -> {
+                                Set<Long> unknown = new HashSet<>(misses);
+                                for (Student student : loaded) {
+                                    found.put(student.getId(), student);
+                                    nearCache.put(student);
+                                    unknown.remove(student.getId());
+                                }
+                                return cacheAll(loaded, unknown, false).thenReturn(inRequestOrder(ids, found));
+                            });
+                });
+    }
+
+    public StudentStatsDto getStatistics() {
+        return statistics.snapshot();
+    }
+
+    public StudentTransferDto startImport(String file) {
+        return bulkTransfer.startImport(file);
+    }
+
+    public StudentTransferDto startExport(String file) {
+        return bulkTransfer.startExport(file);
+    }
+
+    public StudentTransferDto getTransfer() {
+        return bulkTransfer.getTransfer();
+    }
+
+    public boolean isSearchReady() {
+        return searchIndex.isReady();
+    }
+
+    /**
+     * Same contract as {@link StudentService#searchStudentsAsync}. The index lookup itself never
+     * blocks on I/O, so it runs on the calling event loop.
+     */
+    public Mono<StudentSearchDto> searchStudents(String namePrefix, Integer minAge, Integer maxAge, int offset, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, Constant.SEARCH_MAX_LIMIT));
+        int from = Math.max(0, offset);
+        return Mono.fromCallable(() -> searchIndex.search(namePrefix, minAge, maxAge, from, pageSize + 1))
+                .flatMap(ids -> {
+                    Integer nextOffset = ids.size() > pageSize ? from + pageSize : null;
+                    List<Long> page = nextOffset == null ? ids : ids.subList(0, pageSize);
+                    if (page.isEmpty()) {
+                        return Mono.just(new StudentSearchDto(List.of(), null));
+                    }
+                    return getStudentsByIds(page).map(students -> {
+                        List<Student> matching = new ArrayList<>(students.size());
+                        for (Student student : students) {
+                            if (StudentSearchIndex.matches(student, namePrefix, minAge, maxAge)) {
+                                matching.add(student);
+                            }
+                        }
+                        return new StudentSearchDto(matching, nextOffset);
+                    });
+                });
+    }
+
+    public Mono<Student> saveStudent(StudentDto studentDto) {
+        return studentRepository.insert(studentDto.getName(), studentDto.getAge())
+                .doOnNext(saved -> {
+                    searchIndex.put(saved);
+                    statistics.added(saved.getAge());
+                })
+                .flatMap(saved -> cache(saved)
+                        .then(publishChanges(List.of(StudentChangeEvent.of(StudentChangeEvent.CREATED, saved))))
+                        .thenReturn(saved));
+    }
+
+    public Flux<Student> saveStudentsBatch(List<StudentDto> studentDtos) {
+        List<Student> students = new ArrayList<>(studentDtos.size());
+        for (StudentDto studentDto : studentDtos) {
+            Student student = new Student();
+            student.setName(studentDto.getName());
+            student.setAge(studentDto.getAge());
+            students.add(student);
+        }
+        return studentRepository.insertAll(students)
+                .collectList()
+                .doOnNext(saved -> {
+                    searchIndex.putAll(saved);
+                    for (Student student : saved) {
+                        statistics.added(student.getAge());
+                    }
+                })
+                .flatMapMany(saved -> {
+                    List<StudentChangeEvent> changes = new ArrayList<>(saved.size());
+                    for (Student student : saved) {
+                        changes.add(StudentChangeEvent.of(StudentChangeEvent.CREATED, student));
+                    }
+                    return cacheAll(saved, Set.of(), true).then(publishChanges(changes)).thenMany(Flux.fromIterable(saved));
+                });
+    }
+
+    /**
+     * Single conditional UPDATE when {@code expectedVersion} is given, as in
+     * {@link StudentService#updateStudentAsync(Long, Student, Long)}. Empty for unknown students.
+     */
+    public Mono<Student> updateStudent(Long id, Student student, Long expectedVersion) {
+        Mono<Student> updated;
+        if (expectedVersion != null) {
+            updated = studentRepository.updateByIdAndVersion(id, expectedVersion, student.getName(), student.getAge())
+                    .flatMap(rows -> {
+                        if (rows == 0) {
+                            return Mono.error(new StudentVersionConflictException(id, expectedVersion));
+                        }
+                        student.setId(id);
+                        student.setVersion(expectedVersion + 1);
+                        return Mono.just(student);
+                    });
+        } else {
+            updated = studentRepository.updateById(id, student.getName(), student.getAge())
+                    .flatMap(rows -> rows == 0 ? Mono.<Student>empty() : studentRepository.findById(id));
+        }
+        return updated
+                .doOnNext(saved -> {
+                    statistics.updated(searchIndex.ageOf(id), saved.getAge());
+                    searchIndex.put(saved);
+                })
+                .flatMap(saved -> cache(saved)
+                        .then(publishChanges(List.of(StudentChangeEvent.of(StudentChangeEvent.UPDATED, saved))))
+                        .thenReturn(saved));
+    }
+
+    public Mono<Boolean> deleteStudent(Long id, Long expectedVersion) {
+        Mono<Long> deleted = expectedVersion == null
+                ? studentRepository.removeById(id)
+                : studentRepository.removeByIdAndVersion(id, expectedVersion);
+        return deleted.flatMap(rows -> {
+            if (rows == 0) {
+                return expectedVersion == null ? Mono.just(false)
+                        : Mono.error(new StudentVersionConflictException(id, expectedVersion));
+            }
+            nearCache.evictLocal(id);
+            statistics.removed(searchIndex.ageOf(id));
+            searchIndex.remove(id);
+            return redisTemplate.opsForValue()
+                    .set(Constant.STUDENT_KEY_PREFIX + id, Constant.STUDENT_TOMBSTONE, TOMBSTONE_TTL)
+                    .then(publishInvalidation(id))
+                    .then(publishChanges(List.of(StudentChangeEvent.deleted(id))))
+                    .thenReturn(true);
+        });
+    }
+
+    private Mono<Void> cache(Student student) {
+        nearCache.evictLocal(student.getId());
+        return redisTemplate.opsForValue()
+                .set(Constant.STUDENT_KEY_PREFIX + student.getId(), student, STUDENT_TTL)
+                .then(publishInvalidation(student.getId()));
+    }
+
+    /**
+     * Lettuce pipelines these commands over its shared connection, so this costs about one round trip.
+     * Unless {@code replace} is set (the students were just written), the students were read with
+     * no lock against concurrent writers, so they only fill keys that are still empty.
+     */
+    private Mono<Void> cacheAll(List<Student> students, Set<Long> missingIds, boolean replace) {
+        return Flux.concat(
+                        Flux.fromIterable(students).flatMap(student -> replace
+                                ? redisTemplate.opsForValue().set(Constant.STUDENT_KEY_PREFIX + student.getId(), student, STUDENT_TTL)
+                                : redisTemplate.opsForValue().setIfAbsent(Constant.STUDENT_KEY_PREFIX + student.getId(), student, STUDENT_TTL)),
+                        Flux.fromIterable(missingIds).flatMap(id -> redisTemplate.opsForValue()
+                                .setIfAbsent(Constant.STUDENT_KEY_PREFIX + id, Constant.STUDENT_TOMBSTONE, TOMBSTONE_TTL)))
+                .then();
+    }
+
+    /**
+     * Server-sent student changes, with the same resume and catch-up rules as
+     * {@link StudentService#streamChangesAsync}. Waiting for the next change holds no thread: the
+     * stream re-arms on {@link StudentChangeFeed#onAppend} and falls back to a keep-alive comment.
+     * The subscriber slot is taken right away, so a full server is reported before the response
+     * starts, and released when the returned stream terminates or is cancelled.
+     */
+    public Flux<ServerSentEvent<StudentChangeEvent>> streamChanges(String lastEventId) {
+        if (!changeFeed.tryAcquireSubscriber()) {
+            throw new RejectedExecutionException("Too many open change streams");
+        }
+        return Flux.defer(() -> {
+            StudentChangeFeed.Position position = changeFeed.resumePosition(lastEventId);
+            AtomicLong after = new AtomicLong(position.getAfter());
+            AtomicLong lastAppendedAt = new AtomicLong(System.currentTimeMillis());
+            Flux<ServerSentEvent<StudentChangeEvent>> catchUp = position.getCatchUpSince() == null
+                    ? Flux.empty() : catchUp(position.getCatchUpSince());
+            Flux<ServerSentEvent<StudentChangeEvent>> live = Flux.defer(() -> {
+                List<StudentChangeEvent> events = changeFeed.readAfter(after.get(), Constant.CHANGES_BATCH_SIZE);
+                if (events == null) {
+                    StudentChangeFeed.Position behind = changeFeed.catchUpFrom(lastAppendedAt.get());
+                    after.set(behind.getAfter());
+                    lastAppendedAt.set(System.currentTimeMillis());
+                    return catchUp(behind.getCatchUpSince());
+                }
+                if (events.isEmpty()) {
+                    return nextAppend(after.get()).flux();
+                }
+                StudentChangeEvent last = events.get(events.size() - 1);
+                after.set(last.getSequence());
+                lastAppendedAt.set(last.getReceivedAt());
+                return Flux.fromIterable(events).map(event -> ServerSentEvent.builder(event)
+                        .id(changeFeed.eventId(event))
+                        .event(event.getType())
+                        .build());
+            }).repeat();
+            return catchUp.concatWith(live)
+                    .takeUntilOther(closing.asMono())
+                    .doFinally(signal -> changeFeed.releaseSubscriber());
+        });
+    }
+
+    /**
+     * Ends open change streams when shutdown starts, so graceful shutdown does not wait on them.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeChangeStreams() {
+        closing.tryEmitEmpty();
+    }
+
+    /**
+     * Completes empty on the next append after {@code after}, or with a keep-alive comment after
+     * {@link Constant#CHANGES_HEARTBEAT_MILLIS}.
+     */
+    private Mono<ServerSentEvent<StudentChangeEvent>> nextAppend(long after) {
+        Mono<ServerSentEvent<StudentChangeEvent>> appended = Mono.create(sink -> {
+            Runnable unregister = changeFeed.onAppend(sink::success);
+            sink.onDispose(unregister::run);
+            if (changeFeed.hasAfter(after)) {
+                sink.success();
+            }
+        });
+        return appended.timeout(Duration.ofMillis(Constant.CHANGES_HEARTBEAT_MILLIS),
+                Mono.just(ServerSentEvent.<StudentChangeEvent>builder().comment("keep-alive").build()));
+    }
+
+    private Flux<ServerSentEvent<StudentChangeEvent>> catchUp(LocalDateTime since) {
+        return studentRepository.findUpdatedSince(since, 0L, Constant.CHANGES_BATCH_SIZE)
+                .collectList()
+                .expand(page -> page.size() < Constant.CHANGES_BATCH_SIZE ? Mono.empty()
+                        : studentRepository.findUpdatedSince(since, page.get(page.size() - 1).getId(),
+                                Constant.CHANGES_BATCH_SIZE).collectList())
+                .flatMapIterable(page -> page)
+                .map(student -> ServerSentEvent.builder(new StudentChangeEvent(StudentChangeEvent.UPDATED,
+                                student.getId(), student.getVersion(), student, System.currentTimeMillis()))
+                        .event(StudentChangeEvent.UPDATED)
+                        .build());
+    }
+
+    private Mono<Void> publishChanges(List<StudentChangeEvent> events) {
+        return Mono.defer(() -> stringRedisTemplate.convertAndSend(Constant.STUDENT_CHANGES_CHANNEL,
+                        changeFeed.append(events)))
+                .onErrorResume(ex -> {
+                    log.warn("Failed to publish {} student changes", events.size(), ex);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Same message format as {@link StudentNearCache}, so servlet replicas drop their near-cache copy.
+     */
+    private Mono<Void> publishInvalidation(Long id) {
+        return stringRedisTemplate.convertAndSend(Constant.STUDENT_INVALIDATION_CHANNEL, instanceId + "|" + id)
+                .onErrorResume(ex -> {
+                    log.warn("Failed to publish invalidation for student with id: {}", id, ex);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private static List<Student> inRequestOrder(List<Long> ids, Map<Long, Student> found) {
+        List<Student> students = new ArrayList<>(found.size());
+        for (Long id : ids) {
+            Student student = found.get(id);
+            if (student != null) {
+                students.add(student);
+            }
+        }
+        return students;
+    }
+}
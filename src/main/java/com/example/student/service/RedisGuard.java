@@ -0,0 +1,432 @@
+package com.example.student.service;
+
+import com.example.student.utils.Constant;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Call-level protection for the Redis commands issued by {@link StudentService}. Lettuce gives
+ * every command {@code student.redis.command-timeout-ms} (see {@code RedisConfig}); on top of that:
+ * <ul>
+ *     <li>A circuit breaker opens when too many calls fail or are slower than
+ *     {@code breaker.slow-call-ms}. While it is open Redis is not called at all and reads go
+ *     straight to the database.</li>
+ *     <li>Hedged reads: a read that has not answered within about the p95 of recent Redis
+ *     latency (capped at {@code hedge.max-delay-ms}) races a database load, and the first answer
+ *     wins.</li>
+ *     <li>Writes are fire-and-forget on a fixed number of single-threaded lanes with bounded queues.
+ *     A key always maps to the same lane, so writes to one key land in order.</li>
+ * </ul>
+ * A write that fails, is rejected by the breaker or finds its lane full leaves Redis holding an
+ * older value. Such keys are remembered as unsynced: reads skip Redis for them, and once the
+ * breaker is closed they are deleted in the background so the next read reloads them. Other
+ * replicas miss the invalidation for a lost write, so they may serve the old value from their near
+ * cache for up to {@link Constant#NEAR_CACHE_EXPIRY_SECONDS}.
+ */
+@Component
+public class RedisGuard implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(RedisGuard.class);
+
+    private static final int BREAKER_WINDOW = 100;
+    private static final int BREAKER_MINIMUM_CALLS = 20;
+    private static final int BREAKER_HALF_OPEN_CALLS = 10;
+    private static final int LATENCY_WINDOW = 512;
+    private static final int LATENCY_UPDATE_INTERVAL = 64;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CircuitBreakerRegistry breakers;
+    private final CircuitBreaker breaker;
+    private final long maxHedgeDelayNanos;
+    private final ThreadPoolExecutor[] lanes;
+    private final ScheduledExecutorService repairs;
+    private final Set<String> unsynced = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW);
+    private final AtomicLong latencySamples = new AtomicLong();
+
+    private volatile long hedgeDelayNanos;
+    private Counter bypassed;
+    private Counter lostWrites;
+    private Counter redisWins;
+    private Counter databaseWins;
+
+    /**
+     * @param writeLanes number of write lanes; 0 runs writes on the caller, without background repair
+     */
+    @Autowired
+    public RedisGuard(RedisTemplate<String, Object> redisTemplate,
+                      @Value("${student.redis.hedge.max-delay-ms:20}") long maxHedgeDelayMillis,
+                      @Value("${student.redis.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                      @Value("${student.redis.breaker.slow-call-ms:100}") long slowCallMillis,
+                      @Value("${student.redis.breaker.open-ms:5000}") long openMillis,
+                      @Value("${student.redis.write.lanes:4}") int writeLanes,
+                      @Value("${student.redis.write.queue-capacity:10000}") int writeQueueCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(BREAKER_WINDOW)
+                .minimumNumberOfCalls(BREAKER_MINIMUM_CALLS)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallMillis))
+                .waitDurationInOpenState(Duration.ofMillis(openMillis))
+                .permittedNumberOfCallsInHalfOpenState(BREAKER_HALF_OPEN_CALLS)
+                // an overloaded service is not an unhealthy Redis
+                .ignoreExceptions(RejectedExecutionException.class)
+                .build());
+        this.breaker = breakers.circuitBreaker("redis");
+        this.breaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Redis circuit breaker {}", event.getStateTransition()));
+        this.maxHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxHedgeDelayMillis);
+        this.hedgeDelayNanos = maxHedgeDelayNanos;
+        this.lanes = new ThreadPoolExecutor[writeLanes];
+        for (int i = 0; i < writeLanes; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, writeQueueCapacity / writeLanes)),
+                    Thread.ofPlatform().daemon().name("student-cache-write-" + i).factory(),
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        if (writeLanes > 0) {
+            this.repairs = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().daemon().name("student-cache-repair").factory());
+            repairs.scheduleWithFixedDelay(this::repairUnsynced, openMillis, openMillis, TimeUnit.MILLISECONDS);
+        } else {
+            this.repairs = null;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(registry);
+        bypassed = Counter.builder("student.redis.bypassed")
+                .description("Redis calls skipped because the circuit breaker was open or the key unsynced")
+                .register(registry);
+        lostWrites = Counter.builder("student.redis.writes.lost")
+                .description("Cache writes that failed, were rejected or found their lane full")
+                .register(registry);
+        redisWins = Counter.builder("student.redis.hedges")
+                .description("Reads that outlived the hedge delay, by which side answered first")
+                .tag("winner", "redis")
+                .register(registry);
+        databaseWins = Counter.builder("student.redis.hedges")
+                .description("Reads that outlived the hedge delay, by which side answered first")
+                .tag("winner", "database")
+                .register(registry);
+        Gauge.builder("student.redis.hedge.delay", this, guard -> guard.hedgeDelayNanos / 1_000_000.0)
+                .description("Current hedge delay for Redis reads")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("student.redis.unsynced", unsynced, Set::size)
+                .description("Keys whose latest cache write was lost")
+                .register(registry);
+        Gauge.builder("student.redis.writes.queued", this, RedisGuard::queuedWrites)
+                .description("Cache writes waiting in a lane")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (repairs != null) {
+            repairs.shutdownNow();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.awaitTermination(Constant.BULKHEAD_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs a read of {@code keyCount} keys on the calling thread. Returns null when the breaker is
+     * open or the call fails, which callers treat as a miss; a {@link RejectedExecutionException}
+     * from the concurrency limiter is passed on.
+     */
+    public <T> T read(int keyCount, Supplier<T> command) {
+        if (!breaker.tryAcquirePermission()) {
+            increment(bypassed);
+            return null;
+        }
+        try {
+            return call(keyCount, command);
+        } catch (RejectedExecutionException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            log.debug("Redis read failed, treating it as a miss", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Reads {@code key} with {@code command} on {@code executor} and hands the result to
+     * {@code resolve}, which also deals with misses. If Redis has not answered within the hedge
+     * delay, {@code fallback} (a database load) starts as well: a Redis result accepted by
+     * {@code isAnswer} that arrives first is resolved and returned, otherwise the fallback's result
+     * is. Without Redis (breaker open, key unsynced, call failed) only the fallback runs. The
+     * fallback is started from a timer or a Redis callback, so it must hand its work to an
+     * executor rather than block. {@code executor} rejecting the read is passed on as it is.
+     */
+    public <R, T> CompletableFuture<T> readHedged(String key, Executor executor, Supplier<R> command,
+                                                  Predicate<R> isAnswer, Function<R, CompletableFuture<T>> resolve,
+                                                  Supplier<CompletableFuture<T>> fallback) {
+        if (unsynced.contains(key) || !breaker.tryAcquirePermission()) {
+            increment(bypassed);
+            return fallback.get();
+        }
+        CompletableFuture<R> redis;
+        try {
+            redis = CompletableFuture.supplyAsync(() -> call(1, command), executor);
+        } catch (RejectedExecutionException ex) {
+            breaker.releasePermission();
+            throw ex;
+        }
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicBoolean hedged = new AtomicBoolean();
+        CompletableFuture<Void> redisDone = new CompletableFuture<>();
+        redis.whenComplete((result, ex) -> {
+            Throwable failure = unwrap(ex);
+            if (hedged.compareAndSet(false, true)) {
+                // answered within the hedge delay: no race
+                if (failure == null) {
+                    forward(() -> resolve.apply(result), first);
+                } else if (failure instanceof RejectedExecutionException) {
+                    first.completeExceptionally(failure);
+                } else {
+                    log.debug("Redis read failed, loading {} from the database", key, failure);
+                    forward(fallback, first);
+                }
+                return;
+            }
+            if (failure != null || !isAnswer.test(result)) {
+                redisDone.complete(null);
+                return;
+            }
+            start(() -> resolve.apply(result)).whenComplete((resolved, resolveEx) -> {
+                if (resolveEx == null && first.complete(resolved)) {
+                    increment(redisWins);
+                } else if (resolveEx != null) {
+                    log.debug("Could not resolve a late Redis answer", resolveEx);
+                }
+                redisDone.complete(null);
+            });
+        });
+        CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS, Runnable::run).execute(() -> {
+            if (!hedged.compareAndSet(false, true)) {
+                return;
+            }
+            start(fallback).whenComplete((result, ex) -> {
+                if (ex == null) {
+                    if (first.complete(result)) {
+                        increment(databaseWins);
+                    }
+                } else {
+                    // only fail once Redis has had its chance to answer
+                    redisDone.whenComplete((ignored, redisEx) -> first.completeExceptionally(unwrap(ex)));
+                }
+            });
+        });
+        return first;
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    private static <T> void forward(Supplier<CompletableFuture<T>> task, CompletableFuture<T> target) {
+        start(task).whenComplete((result, ex) -> {
+            if (ex == null) {
+                target.complete(result);
+            } else {
+                target.completeExceptionally(unwrap(ex));
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    /**
+     * Whether the latest write to {@code key} was lost, so the value in Redis may be older than
+     * the database's.
+     */
+    public boolean isUnsynced(String key) {
+        return unsynced.contains(key);
+    }
+
+    /**
+     * Queues {@code command}, a write to {@code key}, behind earlier writes to the same key.
+     */
+    public void write(String key, Runnable command) {
+        writeAll(List.of(key), keys -> command.run());
+    }
+
+    /**
+     * Splits {@code keys} by lane and runs {@code command} once per lane with that lane's share,
+     * typically as one pipelined round trip.
+     */
+    public void writeAll(Collection<String> keys, Consumer<List<String>> command) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (lanes.length == 0) {
+            runWrite(List.copyOf(keys), command);
+            return;
+        }
+        Map<Integer, List<String>> byLane = new HashMap<>();
+        for (String key : keys) {
+            byLane.computeIfAbsent(Math.floorMod(key.hashCode(), lanes.length), lane -> new ArrayList<>()).add(key);
+        }
+        byLane.forEach((lane, laneKeys) -> {
+            try {
+                lanes[lane].execute(() -> runWrite(laneKeys, command));
+            } catch (RejectedExecutionException ex) {
+                lost(laneKeys, ex);
+            }
+        });
+    }
+
+    private void runWrite(List<String> keys, Consumer<List<String>> command) {
+        if (!breaker.tryAcquirePermission()) {
+            increment(bypassed);
+            lost(keys, null);
+            return;
+        }
+        try {
+            call(keys.size(), () -> {
+                command.accept(keys);
+                return null;
+            });
+            keys.forEach(unsynced::remove);
+        } catch (RuntimeException ex) {
+            lost(keys, ex);
+        }
+    }
+
+    private void lost(List<String> keys, Exception cause) {
+        unsynced.addAll(keys);
+        if (lostWrites != null) {
+            lostWrites.increment(keys.size());
+        }
+        if (cause != null) {
+            log.warn("Lost cache write for {} key(s), starting with {}", keys.size(), keys.get(0), cause);
+        }
+    }
+
+    /**
+     * Deletes the keys whose write was lost, so the next read reloads them from the database.
+     */
+    void repairUnsynced() {
+        if (unsynced.isEmpty() || breaker.getState() != CircuitBreaker.State.CLOSED) {
+            return;
+        }
+        log.info("Deleting {} unsynced cache key(s)", unsynced.size());
+        writeAll(List.copyOf(unsynced), keys -> redisTemplate.delete(keys));
+    }
+
+    /**
+     * Runs {@code command}, covering {@code keyCount} keys, after a breaker permission has been
+     * taken and reports its outcome to the breaker. A batch is judged by its latency per key, as a
+     * 500-key pipeline is expected to be slower than a single GET; only single-key calls feed the
+     * hedge delay.
+     */
+    private <T> T call(int keyCount, Supplier<T> command) {
+        long start = System.nanoTime();
+        try {
+            T result = command.get();
+            long elapsed = System.nanoTime() - start;
+            breaker.onSuccess(elapsed / Math.max(1, keyCount), TimeUnit.NANOSECONDS);
+            if (keyCount == 1) {
+                sample(elapsed);
+            }
+            return result;
+        } catch (RuntimeException ex) {
+            long elapsed = System.nanoTime() - start;
+            breaker.onError(elapsed / Math.max(1, keyCount), TimeUnit.NANOSECONDS, ex);
+            if (keyCount == 1 && !(ex instanceof RejectedExecutionException)) {
+                sample(elapsed);
+            }
+            throw ex;
+        }
+    }
+
+    private void sample(long nanos) {
+        long n = latencySamples.getAndIncrement();
+        latencies.set((int) (n % LATENCY_WINDOW), nanos);
+        if ((n + 1) % LATENCY_UPDATE_INTERVAL == 0) {
+            int size = (int) Math.min(n + 1, LATENCY_WINDOW);
+            long[] window = new long[size];
+            for (int i = 0; i < size; i++) {
+                window[i] = latencies.get(i);
+            }
+            Arrays.sort(window);
+            long p95 = window[(int) (size * 0.95)];
+            hedgeDelayNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(Constant.REDIS_HEDGE_MIN_DELAY_MICROS),
+                    Math.min(maxHedgeDelayNanos, p95));
+        }
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    private int queuedWrites() {
+        int queued = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queued += lane.getQueue().size();
+        }
+        return queued;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
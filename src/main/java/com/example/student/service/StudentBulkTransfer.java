@@ -0,0 +1,548 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.dtos.StudentTransferDto;
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * File based bulk import and export of the students table, for the nightly roster sync.
+ * <p>
+ * Files are named relative to {@code student.bulk.directory}; names that resolve outside it are
+ * rejected. The format follows the extension: {@code .csv} files start with a header naming at
+ * least the {@code name} and {@code age} columns, {@code .ndjson} and {@code .jsonl} files hold one
+ * object per line. Only one transfer runs at a time, on its own thread; callers poll its progress.
+ * <p>
+ * An import splits the file into {@code chunk-bytes} ranges that {@code parallelism} workers map
+ * and parse independently: a range owns the lines that start inside it. Each range is inserted
+ * through {@link StudentRepository#insertChunk}, which records the range as imported in the same
+ * transaction. Running the same import again after a failure or crash therefore skips exactly the
+ * ranges already committed, as long as the file's size and modification time are unchanged. The
+ * range's cache keys are then deleted, dropping tombstones left by lookups of ids that did not
+ * exist yet, rather than filling Redis with the whole file. Memory use is bounded by
+ * {@code parallelism} ranges, whatever the file size. Lines that cannot be parsed are counted and
+ * skipped.
+ * <p>
+ * An export walks the table through {@link StudentRepository#streamAll} and writes
+ * {@code <file>.part}, which replaces the target once complete.
+ */
+@Component
+public class StudentBulkTransfer {
+    private static final Logger log = LoggerFactory.getLogger(StudentBulkTransfer.class);
+
+    private static final int LOGGED_REJECTS = 10;
+
+    private final StudentRepository studentRepository;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final StudentSearchIndex searchIndex;
+    private final StudentStatistics statistics;
+    private final StudentChangeFeed changeFeed;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final StudentNearCache nearCache;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkBytes;
+    private final int parallelism;
+    private final AtomicReference<Transfer> current = new AtomicReference<>();
+
+    @Autowired
+    public StudentBulkTransfer(StudentRepository studentRepository, DatabaseBulkhead databaseBulkhead,
+                               StudentSearchIndex searchIndex, StudentStatistics statistics,
+                               StudentChangeFeed changeFeed, RedisTemplate<String, Object> redisTemplate,
+                               RedisGuard redisGuard, StudentNearCache nearCache, ObjectMapper objectMapper,
+                               @Value("${student.bulk.directory:bulk}") String directory,
+                               @Value("${student.bulk.chunk-bytes:1048576}") int chunkBytes,
+                               @Value("${student.bulk.parallelism:4}") int parallelism) {
+        this.studentRepository = studentRepository;
+        this.databaseBulkhead = databaseBulkhead;
+        this.searchIndex = searchIndex;
+        this.statistics = statistics;
+        this.changeFeed = changeFeed;
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.nearCache = nearCache;
+        this.objectMapper = objectMapper;
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Starts importing {@code file}. Throws {@link IllegalArgumentException} for a file that is
+     * outside the bulk directory, missing or of an unknown format, and {@link IllegalStateException}
+     * while another transfer runs.
+     */
+    public StudentTransferDto startImport(String file) {
+        Path path = resolve(file);
+        Format format = Format.of(path);
+        if (!Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("No such file: " + file);
+        }
+        Transfer transfer = begin(StudentTransferDto.IMPORT, file);
+        run(transfer, () -> importFile(transfer, path, format));
+        return transfer.snapshot();
+    }
+
+    /**
+     * Starts exporting every student to {@code file}, replacing it when done. Throws like
+     * {@link #startImport}.
+     */
+    public StudentTransferDto startExport(String file) {
+        Path path = resolve(file);
+        Format format = Format.of(path);
+        Transfer transfer = begin(StudentTransferDto.EXPORT, file);
+        run(transfer, () -> exportFile(transfer, path, format));
+        return transfer.snapshot();
+    }
+
+    /**
+     * The running or last finished transfer, or null if there was none.
+     */
+    public StudentTransferDto getTransfer() {
+        Transfer transfer = current.get();
+        return transfer == null ? null : transfer.snapshot();
+    }
+
+    void awaitTransfer() {
+        Transfer transfer = current.get();
+        if (transfer != null) {
+            transfer.finished.join();
+        }
+    }
+
+    private Path resolve(String file) {
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("A file name is required");
+        }
+        Path path = directory.resolve(file).normalize();
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException("File must be inside the bulk directory: " + file);
+        }
+        return path;
+    }
+
+    private Transfer begin(String type, String file) {
+        Transfer transfer = new Transfer(type, file);
+        Transfer previous = current.get();
+        if ((previous != null && !previous.finished.isDone()) || !current.compareAndSet(previous, transfer)) {
+            throw new IllegalStateException("Another bulk transfer is running");
+        }
+        return transfer;
+    }
+
+    private void run(Transfer transfer, Job job) {
+        Thread.ofPlatform().name("student-transfer").start(() -> {
+            try {
+                job.run();
+                transfer.finish(StudentTransferDto.COMPLETED, null);
+                log.info("Bulk {} of {} finished: {} students, {} rejected lines", transfer.type, transfer.file,
+                        transfer.students.get(), transfer.rejected.get());
+            } catch (Exception ex) {
+                Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+                transfer.finish(StudentTransferDto.FAILED, cause.getMessage());
+                log.error("Bulk {} of {} failed", transfer.type, transfer.file, cause);
+            }
+        });
+    }
+
+    private void importFile(Transfer transfer, Path path, Format format) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int[] columns = null;
+            long dataStart = 0;
+            if (format == Format.CSV) {
+                String header = readHeader(channel);
+                columns = csvColumns(header);
+                dataStart = Math.min(size, header.getBytes(StandardCharsets.UTF_8).length + 1L);
+            }
+            int chunkCount = (int) ((size - dataStart + chunkBytes - 1) / chunkBytes);
+            String importKey = importKey(path, size, Files.getLastModifiedTime(path).toMillis(), dataStart);
+            BitSet done = new BitSet(chunkCount);
+            for (Integer chunk : databaseBulkhead.execute(() -> studentRepository.findImportedChunks(importKey))) {
+                if (chunk < chunkCount) {
+                    done.set(chunk);
+                }
+            }
+            transfer.totalBytes = size - dataStart;
+            for (int chunk = done.nextSetBit(0); chunk >= 0; chunk = done.nextSetBit(chunk + 1)) {
+                transfer.processedBytes.addAndGet(chunkEnd(dataStart, size, chunk) - chunkStart(dataStart, chunk));
+            }
+            if (!done.isEmpty()) {
+                log.info("Resuming import of {}: {} of {} chunks already imported", transfer.file,
+                        done.cardinality(), chunkCount);
+            }
+
+            ExecutorService workers = Executors.newFixedThreadPool(parallelism,
+                    Thread.ofPlatform().name("student-import-", 0).factory());
+            try {
+                List<Future<?>> chunks = new ArrayList<>(chunkCount);
+                for (int chunk = done.nextClearBit(0); chunk < chunkCount; chunk = done.nextClearBit(chunk + 1)) {
+                    int index = chunk;
+                    int[] csvColumns = columns;
+                    long start = chunkStart(dataStart, index);
+                    long end = chunkEnd(dataStart, size, index);
+                    chunks.add(workers.submit(() -> {
+                        importChunk(transfer, channel, format, csvColumns, start, end, size, importKey, index);
+                        transfer.chunkDone(end - start);
+                        return null;
+                    }));
+                }
+                for (Future<?> chunk : chunks) {
+                    chunk.get();
+                }
+            } finally {
+                workers.shutdownNow();
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            databaseBulkhead.execute(() -> studentRepository.deleteImportedChunks(importKey));
+        }
+    }
+
+    /**
+     * Identifies one version of an input file and its chunking, so recorded chunks are only reused
+     * for the same ranges of the same content.
+     */
+    private String importKey(Path path, long size, long lastModified, long dataStart) {
+        String identity = path + "|" + size + "|" + lastModified + "|" + dataStart + "|" + chunkBytes;
+        return UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    private long chunkStart(long dataStart, int chunk) {
+        return dataStart + (long) chunk * chunkBytes;
+    }
+
+    private long chunkEnd(long dataStart, long size, int chunk) {
+        return Math.min(size, chunkStart(dataStart, chunk + 1));
+    }
+
+    /**
+     * Parses the lines starting in {@code [start, end)} and inserts them as chunk {@code chunk} of
+     * import {@code importKey}; a range without students is not recorded. The mapping reaches one
+     * byte before the range, to tell whether the range starts on a line, and up to
+     * {@link Constant#TRANSFER_MAX_LINE_BYTES} past it, to finish its last line.
+     */
+    private void importChunk(Transfer transfer, FileChannel channel, Format format, int[] columns,
+                             long start, long end, long size, String importKey, int chunk) throws IOException {
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + Constant.TRANSFER_MAX_LINE_BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        int limit = (int) (end - mapStart);
+        int position = 0;
+        if (start > 0) {
+            position = indexOf(buffer, 0, limit, (byte) '\n') + 1;
+            if (position == 0) {
+                return;
+            }
+        }
+
+        List<Student> students = new ArrayList<>();
+        byte[] line = new byte[256];
+        while (position < limit) {
+            int newline = indexOf(buffer, position, buffer.limit(), (byte) '\n');
+            if (newline < 0 && mapEnd < size) {
+                transfer.reject(mapStart + position, "line longer than " + Constant.TRANSFER_MAX_LINE_BYTES + " bytes");
+                break;
+            }
+            int lineEnd = newline < 0 ? buffer.limit() : newline;
+            int length = lineEnd - position;
+            if (length > 0 && buffer.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (length > 0) {
+                if (length > line.length) {
+                    line = new byte[Math.max(length, line.length * 2)];
+                }
+                buffer.get(position, line, 0, length);
+                Student student = format == Format.CSV ? parseCsv(line, length, columns) : parseJson(line, length);
+                if (student == null) {
+                    transfer.reject(mapStart + position, "not a valid student");
+                } else {
+                    students.add(student);
+                }
+            }
+            position = lineEnd + (newline < 0 ? 0 : 1);
+        }
+
+        if (students.isEmpty()) {
+            return;
+        }
+        databaseBulkhead.execute(() -> studentRepository.insertChunk(importKey, chunk, students, Constant.JDBC_BATCH_SIZE));
+        searchIndex.putAll(students);
+        List<String> cacheKeys = new ArrayList<>(students.size());
+        List<StudentChangeEvent> changes = new ArrayList<>(students.size());
+        for (Student student : students) {
+            nearCache.evictLocal(student.getId());
+            cacheKeys.add(Constant.STUDENT_KEY_PREFIX + student.getId());
+            statistics.added(student.getAge());
+            changes.add(StudentChangeEvent.of(StudentChangeEvent.CREATED, student));
+        }
+        redisGuard.writeAll(cacheKeys, redisTemplate::delete);
+        changeFeed.publish(changes);
+        transfer.students.addAndGet(students.size());
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Constant.TRANSFER_MAX_LINE_BYTES));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        int newline = indexOf(buffer, 0, buffer.position(), (byte) '\n');
+        if (newline < 0 && buffer.position() == Constant.TRANSFER_MAX_LINE_BYTES) {
+            throw new IllegalArgumentException("CSV header is longer than " + Constant.TRANSFER_MAX_LINE_BYTES + " bytes");
+        }
+        return new String(buffer.array(), 0, newline < 0 ? buffer.position() : newline, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Indexes of the {@code name} and {@code age} columns in the header.
+     */
+    static int[] csvColumns(String header) {
+        List<String> names = splitCsv(header.endsWith("\r") ? header.substring(0, header.length() - 1) : header);
+        int[] columns = {-1, -1};
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            if (name.equals("name")) {
+                columns[0] = i;
+            } else if (name.equals("age")) {
+                columns[1] = i;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0) {
+            throw new IllegalArgumentException("CSV header must name the name and age columns");
+        }
+        return columns;
+    }
+
+    private static Student parseCsv(byte[] line, int length, int[] columns) {
+        List<String> fields = splitCsv(new String(line, 0, length, StandardCharsets.UTF_8));
+        if (fields == null || fields.size() <= Math.max(columns[0], columns[1])) {
+            return null;
+        }
+        return student(fields.get(columns[0]), fields.get(columns[1]).trim());
+    }
+
+    private Student parseJson(byte[] line, int length) {
+        try {
+            JsonNode node = objectMapper.readTree(line, 0, length);
+            JsonNode name = node.get("name");
+            JsonNode age = node.get("age");
+            if (name == null || !name.isTextual() || age == null || !age.canConvertToInt() || !age.isIntegralNumber()) {
+                return null;
+            }
+            return student(name.asText(), age.asText());
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static Student student(String name, String age) {
+        if (name.isBlank()) {
+            return null;
+        }
+        Student student = new Student();
+        student.setName(name.trim());
+        try {
+            student.setAge(Integer.parseInt(age));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        return student;
+    }
+
+    /**
+     * Fields of one CSV line, unquoting {@code "..."} fields with {@code ""} as an escaped quote.
+     * Null for an unterminated quote.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String quoteCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"").replace("\r", " ").replace("\n", " ") + '"';
+    }
+
+    private void exportFile(Transfer transfer, Path path, Format format) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path temp = path.resolveSibling(path.getFileName() + ".part");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                if (format == Format.CSV) {
+                    out.write("id,name,age,version\n");
+                }
+                databaseBulkhead.run(() -> studentRepository.streamAll(Constant.STREAM_FETCH_SIZE, student -> {
+                    try {
+                        if (format == Format.CSV) {
+                            out.write(student.getId() + "," + quoteCsv(student.getName()) + "," + student.getAge()
+                                    + "," + student.getVersion() + "\n");
+                        } else {
+                            out.write(objectMapper.writeValueAsString(student));
+                            out.write('\n');
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    transfer.students.incrementAndGet();
+                }));
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+            replace(temp, path);
+            transfer.processedBytes.set(Files.size(path));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void replace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private interface Job {
+        void run() throws Exception;
+    }
+
+    private enum Format {
+        CSV, NDJSON;
+
+        static Format of(Path path) {
+            String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported file type, expected .csv, .ndjson or .jsonl: " + name);
+        }
+    }
+
+    private static final class Transfer {
+        private final String type;
+        private final String file;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processedBytes = new AtomicLong();
+        private final AtomicLong students = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+        private volatile Long totalBytes;
+        private volatile String state = StudentTransferDto.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String message;
+
+        private Transfer(String type, String file) {
+            this.type = type;
+            this.file = file;
+        }
+
+        void reject(long offset, String reason) {
+            if (rejected.incrementAndGet() <= LOGGED_REJECTS) {
+                log.warn("Skipping line at byte {} of {}: {}", offset, file, reason);
+            }
+        }
+
+        void chunkDone(long bytes) {
+            long total = totalBytes == null ? 0 : totalBytes;
+            long processed = processedBytes.addAndGet(bytes);
+            if (total > 0 && processed * 10 / total != (processed - bytes) * 10 / total) {
+                log.info("Imported {} students from {} ({}%)", students.get(), file, processed * 100 / total);
+            }
+        }
+
+        void finish(String state, String message) {
+            this.message = message;
+            this.finishedAt = Instant.now();
+            this.state = state;
+            finished.complete(null);
+        }
+
+        StudentTransferDto snapshot() {
+            return new StudentTransferDto(type, file, state, totalBytes, processedBytes.get(), students.get(),
+                    rejected.get(), startedAt, finishedAt, message);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.student.service;
+
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the ids of the last {@link StudentHotKeys} snapshot into Redis and the near cache at
+ * startup. Runs as an {@link ApplicationRunner}, so the application only reports ready once it is
+ * done.
+ * <p>
+ * Ids go through {@link StudentService#getStudentsByIdsAsync} in chunks of
+ * {@link Constant#MULTI_GET_MAX_IDS}: ids still in Redis cost one MGET per chunk, the rest one IN
+ * query and one pipelined write. At most {@link Constant#WARMUP_PARALLELISM} chunks are in flight,
+ * and no new chunk starts after {@code student.warmup.max-millis}, so a slow database delays
+ * readiness by a bounded amount.
+ */
+@Component
+public class StudentCacheWarmer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StudentCacheWarmer.class);
+
+    private final StudentService studentService;
+    private final StudentHotKeys hotKeys;
+    private final long maxMillis;
+
+    public StudentCacheWarmer(StudentService studentService, StudentHotKeys hotKeys,
+                              @Value("${student.warmup.max-millis:30000}") long maxMillis) {
+        this.studentService = studentService;
+        this.hotKeys = hotKeys;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<Long> ids = hotKeys.readSnapshot();
+        if (ids.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        List<CompletableFuture<List<Student>>> inFlight = new ArrayList<>(Constant.WARMUP_PARALLELISM);
+        int requested = 0;
+        int warmed = 0;
+        for (int from = 0; from < ids.size() && System.nanoTime() < deadline; from += Constant.MULTI_GET_MAX_IDS) {
+            List<Long> chunk = ids.subList(from, Math.min(from + Constant.MULTI_GET_MAX_IDS, ids.size()));
+            inFlight.add(studentService.getStudentsByIdsAsync(chunk, ExecutionLanes.Priority.LOW));
+            requested += chunk.size();
+            if (inFlight.size() == Constant.WARMUP_PARALLELISM) {
+                warmed += drain(inFlight);
+            }
+        }
+        warmed += drain(inFlight);
+        log.info("Warmed the cache with {} of {} hot students ({} requested) in {} ms", warmed, ids.size(), requested,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static int drain(List<CompletableFuture<List<Student>>> inFlight) {
+        int warmed = 0;
+        for (CompletableFuture<List<Student>> chunk : inFlight) {
+            try {
+                warmed += chunk.join().size();
+            } catch (CompletionException ex) {
+                log.warn("Failed to warm a chunk of hot students", ex.getCause());
+            }
+        }
+        inFlight.clear();
+        return warmed;
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.student.service;
+
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.utils.Constant;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Recent student changes, for {@code GET /students/changes}.
+ * <p>
+ * Writers append to a fixed-size ring without locking: a slot is claimed with one atomic
+ * increment and then filled, and a reader that finds a slot still holding an older event simply
+ * waits for it. Every append is also published on {@link Constant#STUDENT_CHANGES_CHANNEL}, and
+ * each instance appends the changes published by the others, so every instance sees every change.
+ * <p>
+ * Sequence numbers are local to an instance. Event ids therefore carry this instance's stream id,
+ * the sequence and the time the event was appended. A client resuming with a {@code Last-Event-ID}
+ * from this instance continues from the ring; one that fell out of the ring, or comes from another
+ * instance or an earlier run, is first sent every student updated since that time, read from the
+ * database. Deletes cannot be replayed that way, so a client that needs them exactly must not fall
+ * further behind than the ring holds.
+ */
+@Component
+public class StudentChangeFeed implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(StudentChangeFeed.class);
+    private static final char SEPARATOR = '|';
+    private static final TypeReference<List<StudentChangeEvent>> EVENT_LIST = new TypeReference<>() {
+    };
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final String streamId = Long.toHexString(UUID.randomUUID().getMostSignificantBits() >>> 16);
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final AtomicReferenceArray<StudentChangeEvent> ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition signal = signalLock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final List<Runnable> appendListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<StudentChangeEvent>>> remoteListeners = new CopyOnWriteArrayList<>();
+    private final Semaphore subscribers;
+
+    @Autowired
+    public StudentChangeFeed(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                             @Value("${student.changes.buffer-size:4096}") int bufferSize,
+                             @Value("${student.changes.max-subscribers:1000}") int maxSubscribers) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.subscribers = new Semaphore(maxSubscribers);
+    }
+
+    /**
+     * Appends the events here and publishes them to the other instances. A failed publish is
+     * logged; the write it describes has already happened.
+     */
+    public void publish(List<StudentChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        String message = append(events);
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    Constant.STUDENT_CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    message.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            log.warn("Failed to publish {} student changes", events.size(), ex);
+        }
+    }
+
+    /**
+     * Appends the events here and returns the message that announces them to the other instances,
+     * for callers that publish it themselves.
+     */
+    public String append(List<StudentChangeEvent> events) {
+        for (StudentChangeEvent event : events) {
+            appendLocal(event);
+        }
+        try {
+            return instanceId + SEPARATOR + objectMapper.writeValueAsString(events);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize student changes", ex);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        List<StudentChangeEvent> events;
+        try {
+            events = objectMapper.readValue(body.substring(separator + 1), EVENT_LIST);
+        } catch (JsonProcessingException ex) {
+            log.warn("Ignoring malformed student change message: {}", body);
+            return;
+        }
+        for (StudentChangeEvent event : events) {
+            appendLocal(event);
+        }
+        for (Consumer<List<StudentChangeEvent>> listener : remoteListeners) {
+            try {
+                listener.accept(events);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to apply {} student changes from another instance", events.size(), ex);
+            }
+        }
+    }
+
+    /**
+     * Hands {@code listener} every batch of changes published by another instance.
+     */
+    public void onRemoteChanges(Consumer<List<StudentChangeEvent>> listener) {
+        remoteListeners.add(listener);
+    }
+
+    public long head() {
+        return claimed.get();
+    }
+
+    /**
+     * Up to {@code max} events following sequence {@code after}, in order. Empty when there are none
+     * yet, null when the ring no longer holds the event right after {@code after}.
+     */
+    public List<StudentChangeEvent> readAfter(long after, int max) {
+        long head = claimed.get();
+        if (after > head) {
+            return null;
+        }
+        List<StudentChangeEvent> events = new ArrayList<>((int) Math.min(max, head - after));
+        for (long sequence = after + 1; sequence <= head && events.size() < max; sequence++) {
+            StudentChangeEvent event = ring.get((int) (sequence & mask));
+            if (event == null || event.getSequence() < sequence) {
+                break;
+            }
+            if (event.getSequence() > sequence) {
+                return events.isEmpty() ? null : events;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Blocks until an event follows sequence {@code after} or {@code millis} pass. Returns whether
+     * one does. Appends only take the lock to wake waiters while a thread is blocked here.
+     * <p>
+     * Change streams wait here on virtual threads, so this uses a {@link ReentrantLock} rather than
+     * a monitor: a virtual thread parked in {@code Object.wait} keeps its carrier thread pinned.
+     */
+    public boolean await(long after, long millis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(millis);
+        signalLock.lockInterruptibly();
+        // registered before the check: an append either lands before it or sees this waiter
+        waiters.incrementAndGet();
+        try {
+            while (!hasAfter(after)) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = signal.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters.decrementAndGet();
+            signalLock.unlock();
+        }
+    }
+
+    /**
+     * Runs {@code listener} after every append until the returned handle is run.
+     */
+    public Runnable onAppend(Runnable listener) {
+        appendListeners.add(listener);
+        return () -> appendListeners.remove(listener);
+    }
+
+    public boolean hasAfter(long after) {
+        StudentChangeEvent event = ring.get((int) ((after + 1) & mask));
+        return event != null && event.getSequence() > after;
+    }
+
+    public boolean tryAcquireSubscriber() {
+        return subscribers.tryAcquire();
+    }
+
+    public void releaseSubscriber() {
+        subscribers.release();
+    }
+
+    public String eventId(StudentChangeEvent event) {
+        return streamId + ':' + event.getSequence() + ':' + event.getReceivedAt();
+    }
+
+    /**
+     * Where a client resuming after {@code lastEventId} starts. Without a usable id it starts with
+     * the next change.
+     */
+    public Position resumePosition(String lastEventId) {
+        long head = claimed.get();
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return new Position(head, null);
+        }
+        String[] parts = lastEventId.trim().split(":");
+        if (parts.length != 3) {
+            return new Position(head, null);
+        }
+        long sequence;
+        long appendedAt;
+        try {
+            sequence = Long.parseLong(parts[1]);
+            appendedAt = Long.parseLong(parts[2]);
+        } catch (NumberFormatException ex) {
+            return new Position(head, null);
+        }
+        if (parts[0].equals(streamId) && readAfter(sequence, 1) != null) {
+            return new Position(sequence, null);
+        }
+        return catchUpFrom(appendedAt);
+    }
+
+    /**
+     * Position for a client whose last event was appended at {@code appendedAt} but is no longer in
+     * the ring: everything updated since then (less {@link Constant#CHANGES_CATCH_UP_SKEW_MILLIS} for
+     * clock skew and commit delay) comes from the database, then the ring continues from its head.
+     */
+    public Position catchUpFrom(long appendedAt) {
+        long since = Math.max(0, appendedAt - Constant.CHANGES_CATCH_UP_SKEW_MILLIS);
+        return new Position(claimed.get(), LocalDateTime.ofInstant(Instant.ofEpochMilli(since), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Sequence to read the ring after, and, when not null, the {@code updated_at} from which the
+     * database has to be read first.
+     */
+    public static final class Position {
+        private final long after;
+        private final LocalDateTime catchUpSince;
+
+        private Position(long after, LocalDateTime catchUpSince) {
+            this.after = after;
+            this.catchUpSince = catchUpSince;
+        }
+
+        public long getAfter() {
+            return after;
+        }
+
+        public LocalDateTime getCatchUpSince() {
+            return catchUpSince;
+        }
+    }
+
+    private void appendLocal(StudentChangeEvent event) {
+        long sequence = claimed.incrementAndGet();
+        event.setSequence(sequence);
+        event.setReceivedAt(System.currentTimeMillis());
+        ring.set((int) (sequence & mask), event);
+        if (waiters.get() > 0) {
+            signalLock.lock();
+            try {
+                signal.signalAll();
+            } finally {
+                signalLock.unlock();
+            }
+        }
+        for (Runnable listener : appendListeners) {
+            listener.run();
+        }
+    }
+}
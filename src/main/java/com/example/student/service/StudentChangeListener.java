@@ -0,0 +1,22 @@
+package com.example.student.service;
+
+import com.example.student.dtos.StudentChangeEvent;
+
+import java.io.IOException;
+
+/**
+ * Receives the events of one {@code GET /students/changes} subscription. Throwing ends it.
+ */
+public interface StudentChangeListener {
+
+    /**
+     * {@code eventId} is what the client sends back as {@code Last-Event-ID} to resume after this
+     * event. It is null for events replayed from the database, which cannot be resumed from.
+     */
+    void onChange(StudentChangeEvent event, String eventId) throws IOException;
+
+    /**
+     * Called when nothing happened for {@link com.example.student.utils.Constant#CHANGES_HEARTBEAT_MILLIS}.
+     */
+    void onIdle() throws IOException;
+}
@@ -0,0 +1,241 @@
+package com.example.student.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the most requested student ids, so a fresh instance or a flushed Redis can be warmed with
+ * them instead of sending the first minutes of traffic to the database.
+ * <p>
+ * Frequencies are estimated with a count-min sketch; ids whose estimate reaches the smallest one in
+ * the current top {@code top-k} are kept as candidates, and the candidate set is pruned back to
+ * {@code top-k} whenever it doubles. Only one read in {@code sample-rate}, picked at random, is
+ * recorded, which keeps the sketch's atomic increments off most reads without changing the ranking
+ * of ids hot enough to matter. Counts are halved at every snapshot, so the ranking follows recent
+ * traffic.
+ * <p>
+ * The top ids are written to {@code snapshot-file} every {@code snapshot-interval-ms} and on
+ * shutdown, sorted and delta encoded as varints behind a small header (a few bytes per id).
+ * The file is replaced atomically, so a crash mid-write leaves the previous snapshot intact.
+ */
+@Component
+public class StudentHotKeys {
+    private static final Logger log = LoggerFactory.getLogger(StudentHotKeys.class);
+
+    private static final int MAGIC = 0x53484b31;
+    private static final int SKETCH_DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+
+    private final boolean enabled;
+    private final Path snapshotFile;
+    private final int topK;
+    private final int sampleRate;
+    private final int width;
+    private final AtomicIntegerArray sketch;
+    private final Map<Long, Integer> candidates = new ConcurrentHashMap<>();
+    private final ReentrantLock pruneLock = new ReentrantLock();
+    private volatile int threshold;
+
+    @Autowired
+    public StudentHotKeys(@Value("${student.warmup.enabled:true}") boolean enabled,
+                          @Value("${student.warmup.snapshot-file:data/student-hot-keys.bin}") String snapshotFile,
+                          @Value("${student.warmup.top-k:10000}") int topK,
+                          @Value("${student.warmup.sample-rate:10}") int sampleRate) {
+        this.enabled = enabled;
+        this.snapshotFile = Path.of(snapshotFile);
+        this.topK = topK;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.width = Integer.highestOneBit(Math.max(1024, topK * 8) - 1) << 1;
+        this.sketch = new AtomicIntegerArray(SKETCH_DEPTH * width);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void record(Long id) {
+        if (!enabled || id == null || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(row * width + slot(id, row)));
+        }
+        if (estimate >= threshold || candidates.size() < topK) {
+            candidates.put(id, estimate);
+            if (candidates.size() >= 2 * topK && pruneLock.tryLock()) {
+                try {
+                    prune();
+                } finally {
+                    pruneLock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * The current top ids, hottest first.
+     */
+    public List<Long> hottest() {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue().reversed());
+        List<Long> ids = new ArrayList<>(Math.min(entries.size(), topK));
+        for (int i = 0; i < entries.size() && i < topK; i++) {
+            ids.add(entries.get(i).getKey());
+        }
+        return ids;
+    }
+
+    @Scheduled(fixedDelayString = "${student.warmup.snapshot-interval-ms:60000}",
+            initialDelayString = "${student.warmup.snapshot-interval-ms:60000}")
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> ids = hottest();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            write(ids);
+            log.debug("Wrote {} hot student ids to {}", ids.size(), snapshotFile);
+        } catch (IOException ex) {
+            log.warn("Failed to write hot student ids to {}", snapshotFile, ex);
+        }
+        decay();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    /**
+     * Ids from the last snapshot in ascending order, or an empty list when there is none or it
+     * cannot be read.
+     */
+    public List<Long> readSnapshot() {
+        if (!enabled || !Files.isRegularFile(snapshotFile)) {
+            return List.of();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != MAGIC) {
+                log.warn("Ignoring {}: not a hot key snapshot", snapshotFile);
+                return List.of();
+            }
+            int count = in.readInt();
+            List<Long> ids = new ArrayList<>(Math.min(count, topK));
+            long previous = 0;
+            for (int i = 0; i < count; i++) {
+                previous += readVarLong(in);
+                ids.add(previous);
+            }
+            return ids;
+        } catch (IOException ex) {
+            log.warn("Ignoring unreadable hot key snapshot {}", snapshotFile, ex);
+            return List.of();
+        }
+    }
+
+    private void write(List<Long> ids) throws IOException {
+        long[] sorted = new long[ids.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ids.get(i);
+        }
+        Arrays.sort(sorted);
+
+        Path directory = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, snapshotFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(sorted.length);
+                long previous = 0;
+                for (long id : sorted) {
+                    writeVarLong(out, id - previous);
+                    previous = id;
+                }
+            }
+            try {
+                Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void prune() {
+        List<Map.Entry<Long, Integer>> entries = new ArrayList<>(candidates.entrySet());
+        if (entries.size() <= topK) {
+            return;
+        }
+        entries.sort(Map.Entry.<Long, Integer>comparingByValue().reversed());
+        threshold = entries.get(topK - 1).getValue();
+        for (int i = topK; i < entries.size(); i++) {
+            candidates.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+    }
+
+    private void decay() {
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.getAndUpdate(i, count -> count >>> 1);
+        }
+        candidates.replaceAll((id, count) -> count >>> 1);
+        threshold >>>= 1;
+    }
+
+    private int slot(long id, int row) {
+        long hash = (id + 1) * SEEDS[row];
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 29;
+        return (int) hash & (width - 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new EOFException("Malformed varint");
+    }
+}
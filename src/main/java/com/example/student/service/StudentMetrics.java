@@ -0,0 +1,109 @@
+package com.example.student.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for {@link StudentService}: a latency histogram per operation and outcome, Redis hit, miss
+ * and tombstone counters, and a timer around database loads on a cache miss. Near-cache statistics are
+ * published by {@link StudentNearCache} itself.
+ */
+@Component
+public class StudentMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> operationTimers = new ConcurrentHashMap<>();
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisTombstones;
+    private final Timer cacheLoads;
+
+    public StudentMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.redisHits = Counter.builder("student.cache.requests")
+                .description("Redis lookups for single students")
+                .tag("tier", "redis").tag("result", "hit")
+                .register(registry);
+        this.redisMisses = Counter.builder("student.cache.requests")
+                .description("Redis lookups for single students")
+                .tag("tier", "redis").tag("result", "miss")
+                .register(registry);
+        this.redisTombstones = Counter.builder("student.cache.requests")
+                .description("Redis lookups for single students")
+                .tag("tier", "redis").tag("result", "tombstone")
+                .register(registry);
+        this.cacheLoads = Timer.builder("student.cache.load")
+                .description("Database loads after a cache miss")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Times an asynchronous operation from the call until its future completes.
+     */
+    public <T> CompletableFuture<T> time(String operation, Supplier<CompletableFuture<T>> call) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException ex) {
+            record(operation, "error", System.nanoTime() - start);
+            throw ex;
+        }
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            record(operation, "success", System.nanoTime() - start);
+            return future;
+        }
+        return future.whenComplete((result, ex) ->
+                record(operation, ex == null ? "success" : "error", System.nanoTime() - start));
+    }
+
+    /**
+     * Times a synchronous operation.
+     */
+    public <T> T timeSync(String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } finally {
+            record(operation, outcome, System.nanoTime() - start);
+        }
+    }
+
+    public void redisHit() {
+        redisHits.increment();
+    }
+
+    public void redisMiss() {
+        redisMisses.increment();
+    }
+
+    public void redisTombstone() {
+        redisTombstones.increment();
+    }
+
+    public void cacheLoad(long nanos) {
+        cacheLoads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        operationTimers.computeIfAbsent(operation + '|' + outcome, key -> Timer.builder("student.operation")
+                        .description("Latency of StudentService operations")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
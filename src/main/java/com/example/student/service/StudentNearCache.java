@@ -0,0 +1,132 @@
+package com.example.student.service;
+
+import com.example.student.dtos.StudentJson;
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import com.example.student.utils.EntityTags;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * In-process L1 cache sitting in front of the Redis lookup in {@link StudentService}.
+ * <p>
+ * Entries are bounded by size (Caffeine's W-TinyLFU policy) and by a short TTL, so a missed
+ * invalidation can only serve a stale student for {@link Constant#NEAR_CACHE_EXPIRY_SECONDS}.
+ * Writes on any replica publish the student id on {@link Constant#STUDENT_INVALIDATION_CHANNEL};
+ * every other replica drops its local copy when the message arrives.
+ * <p>
+ * Each entry also keeps the student's response JSON once it has been asked for, so repeated hits
+ * on a hot student are not serialized again.
+ */
+@Component
+public class StudentNearCache implements MessageListener, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StudentNearCache.class);
+    private static final char SEPARATOR = '|';
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Cache<Long, Entry> cache;
+
+    private static final class Entry {
+        private final Student student;
+        private volatile StudentJson json;
+
+        private Entry(Student student) {
+            this.student = student;
+        }
+    }
+
+    public StudentNearCache(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Constant.NEAR_CACHE_MAX_SIZE)
+                .expireAfterWrite(Duration.ofSeconds(Constant.NEAR_CACHE_EXPIRY_SECONDS))
+                .recordStats()
+                .build();
+    }
+
+    public Student get(Long id) {
+        Entry entry = cache.getIfPresent(id);
+        return entry == null ? null : entry.student;
+    }
+
+    /**
+     * The cached student as response JSON, or null on a miss. When {@code ifNoneMatch} names the
+     * cached version the answer is {@link StudentJson#versionOnly}, without serializing anything;
+     * otherwise the JSON is encoded on the entry's first use and reused afterwards.
+     */
+    public StudentJson getJson(Long id, String ifNoneMatch) {
+        Entry entry = cache.getIfPresent(id);
+        if (entry == null) {
+            return null;
+        }
+        Long version = entry.student.getVersion();
+        if (version != null && ifNoneMatch != null && EntityTags.anyMatches(ifNoneMatch, version)) {
+            return StudentJson.versionOnly(version);
+        }
+        StudentJson json = entry.json;
+        if (json == null) {
+            json = StudentJson.of(entry.student);
+            entry.json = json;
+        }
+        return json;
+    }
+
+    public void put(Student student) {
+        cache.put(student.getId(), new Entry(student));
+    }
+
+    /**
+     * Drops the local copy only, without notifying other replicas.
+     */
+    public void evictLocal(Long id) {
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "student-near-cache");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        if (separator < 0 || body.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        try {
+            evictLocal(Long.parseLong(body.substring(separator + 1)));
+        } catch (NumberFormatException ex) {
+            log.warn("Ignoring malformed invalidation message: {}", body);
+        }
+    }
+
+    /**
+     * Tells the other replicas to drop their copy. Publish only once the new value is in Redis,
+     * or they may read the old one back.
+     */
+    public void publishInvalidation(Long id) {
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                    Constant.STUDENT_INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    (instanceId + SEPARATOR + id).getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception ex) {
+            log.warn("Failed to publish invalidation for student with id: {}", id, ex);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process secondary indexes over the {@code students} table, for name typeahead and age
+ * filtering without a table scan or a LIKE query.
+ * <p>
+ * Names are normalized (accents stripped, lower case, whitespace collapsed) and kept in a sorted
+ * map, so a prefix is a range of that map. Ages index into an array of buckets; ages outside
+ * {@code 0..}{@link Constant#SEARCH_AGE_BUCKETS}{@code -1} share the edge buckets. Every name key
+ * and bucket holds its ids in a sorted {@code long[]}, so the index costs a few machine words per
+ * student and results come out ordered by name, then id (or age, then id).
+ * <p>
+ * The index is filled by streaming the table once the application is ready, and kept current by
+ * {@link StudentService} and {@link ReactiveStudentService} on every write made by this instance,
+ * and by the changes other instances publish through {@link StudentChangeFeed}. A student only
+ * replaces an entry with an older version, so rows streamed during the initial load, or a change
+ * delivered late, never undo a write that landed meanwhile. Changes published while this instance
+ * was not subscribed to Redis show up after the next restart.
+ */
+@Component
+public class StudentSearchIndex implements MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StudentSearchIndex.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long LOAD_RETRY_MILLIS = 5000;
+
+    private final StudentRepository studentRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, IdSet> names = new TreeMap<>();
+    private final IdSet[] ages = new IdSet[Constant.SEARCH_AGE_BUCKETS];
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Set<Long> deletedWhileLoading = new HashSet<>();
+    private volatile boolean loading;
+    private volatile boolean ready;
+    private volatile Thread loader;
+
+    public StudentSearchIndex(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+        for (int i = 0; i < ages.length; i++) {
+            ages[i] = new IdSet();
+        }
+    }
+
+    @Autowired
+    public StudentSearchIndex(StudentRepository studentRepository, StudentChangeFeed changeFeed) {
+        this(studentRepository);
+        changeFeed.onRemoteChanges(this::apply);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread thread = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    load();
+                    return;
+                } catch (RuntimeException ex) {
+                    log.warn("Failed to load the student search index, retrying in {} ms", LOAD_RETRY_MILLIS, ex);
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(LOAD_RETRY_MILLIS);
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }, "student-search-index");
+        thread.setDaemon(true);
+        loader = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = loader;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Streams the whole table into the index. Writes arriving meanwhile are applied as usual.
+     */
+    void load() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            deletedWhileLoading.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            studentRepository.streamAll(Constant.STREAM_FETCH_SIZE, this::putLoaded);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                deletedWhileLoading.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        ready = true;
+        log.info("Loaded {} students into the search index in {} ms", size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Age the index holds for {@code id}, or null when the student is unknown to it.
+     */
+    public Integer ageOf(Long id) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(id);
+            return entry == null ? null : entry.age;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Student student) {
+        lock.writeLock().lock();
+        try {
+            putLocked(student);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putAll(List<Student> students) {
+        lock.writeLock().lock();
+        try {
+            for (Student student : students) {
+                putLocked(student);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies changes made by another instance.
+     */
+    public void apply(List<StudentChangeEvent> events) {
+        lock.writeLock().lock();
+        try {
+            for (StudentChangeEvent event : events) {
+                if (StudentChangeEvent.DELETED.equals(event.getType())) {
+                    removeLocked(event.getId());
+                } else if (event.getStudent() != null) {
+                    putLocked(event.getStudent());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of students whose normalized name starts with {@code namePrefix} (when given) and whose
+     * age lies in {@code [minAge, maxAge]} (either bound may be null). At least one criterion must
+     * be given. Skips the first {@code offset} matches and returns at most {@code limit} ids.
+     */
+    public List<Long> search(String namePrefix, Integer minAge, Integer maxAge, int offset, int limit) {
+        String prefix = namePrefix == null ? null : normalize(namePrefix);
+        if ((prefix == null || prefix.isEmpty()) && minAge == null && maxAge == null) {
+            throw new IllegalArgumentException("A name prefix or an age range is required");
+        }
+        int low = minAge == null ? Integer.MIN_VALUE : minAge;
+        int high = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        List<Long> ids = new ArrayList<>(Math.min(limit, Constant.SEARCH_MAX_LIMIT));
+        if (low > high || limit <= 0) {
+            return ids;
+        }
+
+        lock.readLock().lock();
+        try {
+            int skip = offset;
+            if (prefix != null && !prefix.isEmpty()) {
+                boolean filterAge = minAge != null || maxAge != null;
+                for (IdSet idSet : names.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    for (int i = 0; i < idSet.size; i++) {
+                        long id = idSet.ids[i];
+                        if (filterAge) {
+                            int age = entries.get(id).age;
+                            if (age < low || age > high) {
+                                continue;
+                            }
+                        }
+                        if (skip > 0) {
+                            skip--;
+                        } else if (ids.add(id) && ids.size() == limit) {
+                            return ids;
+                        }
+                    }
+                }
+                return ids;
+            }
+
+            int first = bucket(low);
+            int last = bucket(high);
+            for (int b = first; b <= last; b++) {
+                IdSet idSet = ages[b];
+                boolean edge = b == 0 || b == ages.length - 1;
+                if (!edge && skip >= idSet.size) {
+                    skip -= idSet.size;
+                    continue;
+                }
+                for (int i = 0; i < idSet.size; i++) {
+                    long id = idSet.ids[i];
+                    if (edge) {
+                        int age = entries.get(id).age;
+                        if (age < low || age > high) {
+                            continue;
+                        }
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else if (ids.add(id) && ids.size() == limit) {
+                        return ids;
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * True when {@code student} still satisfies the criteria of {@link #search}; the index answers
+     * from its own copy, while the student returned to the caller may be a fresher one.
+     */
+    public static boolean matches(Student student, String namePrefix, Integer minAge, Integer maxAge) {
+        if (namePrefix != null && !normalize(student.getName()).startsWith(normalize(namePrefix))) {
+            return false;
+        }
+        return (minAge == null || student.getAge() >= minAge) && (maxAge == null || student.getAge() <= maxAge);
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFKD);
+        String stripped = COMBINING_MARKS.matcher(decomposed).replaceAll("");
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("student.search.index.size", this, StudentSearchIndex::size)
+                .description("Students held by the in-memory search index")
+                .register(registry);
+    }
+
+    private void putLoaded(Student student) {
+        lock.writeLock().lock();
+        try {
+            if (!deletedWhileLoading.contains(student.getId())) {
+                putLocked(student);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putLocked(Student student) {
+        if (student.getId() == null) {
+            return;
+        }
+        long id = student.getId();
+        long version = student.getVersion() == null ? Long.MIN_VALUE : student.getVersion();
+        Entry current = entries.get(id);
+        if (current != null) {
+            if (version < current.version) {
+                return;
+            }
+            unlink(id, current);
+        }
+        Entry entry = new Entry(normalize(student.getName()), student.getAge(), version);
+        entries.put(id, entry);
+        names.computeIfAbsent(entry.name, name -> new IdSet()).add(id);
+        ages[bucket(entry.age)].add(id);
+    }
+
+    private void removeLocked(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry != null) {
+            unlink(id, entry);
+        }
+        if (loading) {
+            deletedWhileLoading.add(id);
+        }
+    }
+
+    private void unlink(long id, Entry entry) {
+        IdSet byName = names.get(entry.name);
+        if (byName != null && byName.remove(id) && byName.size == 0) {
+            names.remove(entry.name);
+        }
+        ages[bucket(entry.age)].remove(id);
+    }
+
+    private int bucket(int age) {
+        return Math.max(0, Math.min(ages.length - 1, age));
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final int age;
+        private final long version;
+
+        private Entry(String name, int age, long version) {
+            this.name = name;
+            this.age = age;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Sorted, growable array of ids. Ids are mostly handed out in increasing order, so adds are
+     * usually appends.
+     */
+    private static final class IdSet {
+        private long[] ids = new long[2];
+        private int size;
+
+        private void add(long id) {
+            if (size > 0 && ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            if (size < ids.length / 4 && ids.length > 8) {
+                ids = Arrays.copyOf(ids, ids.length / 2);
+            }
+            return true;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+    }
+}
@@ -2,119 +2,879 @@ package com.example.student.service;
 
 import com.example.student.Repository.StudentRepository;
 import com.example.student.utils.Constant;
+import com.example.student.dtos.StudentChangeEvent;
 import com.example.student.dtos.StudentDto;
+import com.example.student.dtos.StudentJson;
+import com.example.student.dtos.StudentPageDto;
+import com.example.student.dtos.StudentSearchDto;
+import com.example.student.dtos.StudentStatsDto;
+import com.example.student.dtos.StudentTransferDto;
 import com.example.student.entity.Student;
+import com.example.student.exception.StudentVersionConflictException;
 import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class StudentService {
     private static final Logger log = LoggerFactory.getLogger(StudentService.class);
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(Constant.THREAD_POOL_SIZE);
+    private final ExecutionLanes lanes;
 
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
     private final StudentRepository studentRepository;
 
-    public StudentService(StudentRepository studentRepository, RedisTemplate<String, Object> redisTemplate) {
+    private final StudentNearCache nearCache;
+
+    private final DatabaseBulkhead databaseBulkhead;
+
+    private final StudentMetrics metrics;
+
+    private final StudentWriteBehindBuffer writeBehind;
+
+    private final ConcurrencyLimiter limiter;
+
+    private final StudentSearchIndex searchIndex;
+
+    private final StudentStatistics statistics;
+
+    private final StudentHotKeys hotKeys;
+
+    private final StudentChangeFeed changeFeed;
+
+    private final StudentBulkTransfer bulkTransfer;
+
+    private final RedisGuard redisGuard;
+
+    private final ConcurrentMap<Long, CompletableFuture<Student>> inFlightReads = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, CompletableFuture<Student>> inFlightRefreshes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, CompletableFuture<StudentJson>> inFlightJsonReads = new ConcurrentHashMap<>();
+
+    private final Set<Thread> changeStreams = ConcurrentHashMap.newKeySet();
+
+    private volatile long dbLoadNanos = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Autowired
+    public StudentService(StudentRepository studentRepository, RedisTemplate<String, Object> redisTemplate,
+                          StudentNearCache nearCache, ExecutionLanes lanes,
+                          DatabaseBulkhead databaseBulkhead, StudentMetrics metrics,
+                          StudentWriteBehindBuffer writeBehind, ConcurrencyLimiter limiter,
+                          StudentSearchIndex searchIndex, StudentStatistics statistics, StudentHotKeys hotKeys,
+                          StudentChangeFeed changeFeed, StudentBulkTransfer bulkTransfer, RedisGuard redisGuard) {
         this.studentRepository = studentRepository;
         this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+        this.lanes = lanes;
+        this.databaseBulkhead = databaseBulkhead;
+        this.metrics = metrics;
+        this.writeBehind = writeBehind;
+        this.limiter = limiter;
+        this.searchIndex = searchIndex;
+        this.statistics = statistics;
+        this.hotKeys = hotKeys;
+        this.changeFeed = changeFeed;
+        this.bulkTransfer = bulkTransfer;
+        this.redisGuard = redisGuard;
     }
 
     @PostConstruct
     public void init() {
-        log.info("StudentService initialized with thread pool size: {}", Constant.THREAD_POOL_SIZE);
+        writeBehind.onConflict(this::dropSuperseded);
     }
 
-    @PreDestroy
-    public void cleanup() {
-        log.info("Shutting down executor service.");
-        executorService.shutdown();
+    /**
+     * Ends open change streams when shutdown starts, so graceful shutdown does not wait on them.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void closeChangeStreams() {
+        changeStreams.forEach(Thread::interrupt);
     }
 
     public List<Student> getAllStudents() {
-        log.info("Fetching all students.");
-        return studentRepository.findAll();
+        log.debug("Fetching all students.");
+        return metrics.timeSync("getAll", () -> databaseBulkhead.execute(studentRepository::findAllDetached));
+    }
+
+    public StudentPageDto getStudentsPage(Long after, int limit) {
+        return metrics.timeSync("page", () -> loadPage(after, limit));
+    }
+
+    private StudentPageDto loadPage(Long after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, Constant.PAGE_MAX_LIMIT));
+        List<Student> students = databaseBulkhead.execute(() -> studentRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(pageSize)));
+        Long nextAfter = students.size() < pageSize ? null : students.get(students.size() - 1).getId();
+        return new StudentPageDto(students, nextAfter);
+    }
+
+    public void streamAllStudents(Consumer<Student> consumer) {
+        log.debug("Streaming all students.");
+        metrics.timeSync("stream", () -> {
+            databaseBulkhead.run(() -> studentRepository.streamAll(Constant.STREAM_FETCH_SIZE, consumer));
+            return null;
+        });
     }
 
     public CompletableFuture<Student> getStudentByIdAsync(Long id) {
-        return CompletableFuture.supplyAsync(() -> {
-            String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
-            Student cachedStudent = (Student) redisTemplate.opsForValue().get(cacheKey);
+        return metrics.time("get", () -> {
+            hotKeys.record(id);
+            Student nearCached = nearCache.get(id);
+            if (nearCached != null) {
+                return CompletableFuture.completedFuture(nearCached);
+            }
+            return singleFlight(inFlightReads, id, () -> readThrough(id));
+        });
+    }
+
+    /**
+     * Looks the student up in Redis through {@link RedisGuard}, which falls back to, or races, a
+     * database load when Redis is unhealthy or slow. The lookup runs on the cache read lane; a miss
+     * is handed to the database read lane, so a slow database never holds a cache read worker.
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Student> readThrough(Long id) {
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        return redisGuard.readHedged(cacheKey, lanes.executor(ExecutionLanes.Lane.CACHE_READ, ExecutionLanes.Priority.HIGH),
+                () -> limiter.execute(ConcurrencyLimiter.Priority.HIGH, () ->
+                        redisTemplate.executePipelined(new SessionCallback<Object>() {
+                            @Override
+                            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                                RedisOperations<String, Object> stringOperations = (RedisOperations<String, Object>) operations;
+                                stringOperations.opsForValue().get(cacheKey);
+                                stringOperations.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+                                return null;
+                            }
+                        })),
+                StudentService::isCachedAnswer, cached -> resolveCached(id, cached), () -> load(id));
+    }
+
+    private CompletableFuture<Student> load(Long id) {
+        return lanes.supply(ExecutionLanes.Lane.DATABASE_READ, ExecutionLanes.Priority.HIGH, () -> loadAndCache(id, false));
+    }
+
+    /**
+     * Same lookup as {@link #getStudentByIdAsync}, returning the student as response-ready JSON.
+     * With the {@code passthrough} cache codec a Redis hit is the cached bytes as they are, never
+     * decoded; such hits are not copied into the near cache, since that would mean decoding them.
+     * Near cache hits reuse the JSON kept with the entry; entries in the other codecs and database
+     * loads are serialized once here.
+     */
+    public CompletableFuture<StudentJson> getStudentJsonAsync(Long id) {
+        return getStudentJsonAsync(id, null);
+    }
+
+    /**
+     * As {@link #getStudentJsonAsync(Long)}, but a near cache hit whose version {@code ifNoneMatch}
+     * names comes back as {@link StudentJson#versionOnly}, since it will be answered with 304.
+     */
+    public CompletableFuture<StudentJson> getStudentJsonAsync(Long id, String ifNoneMatch) {
+        return metrics.time("get", () -> {
+            hotKeys.record(id);
+            StudentJson nearCached = nearCache.getJson(id, ifNoneMatch);
+            if (nearCached != null) {
+                return CompletableFuture.completedFuture(nearCached);
+            }
+            return singleFlight(inFlightJsonReads, id, () -> readThroughJson(id));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<StudentJson> readThroughJson(Long id) {
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        return redisGuard.readHedged(cacheKey, lanes.executor(ExecutionLanes.Lane.CACHE_READ, ExecutionLanes.Priority.HIGH),
+                () -> limiter.execute(ConcurrencyLimiter.Priority.HIGH, () ->
+                        redisTemplate.executePipelined(new SessionCallback<Object>() {
+                            @Override
+                            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                                RedisOperations<String, Object> stringOperations = (RedisOperations<String, Object>) operations;
+                                stringOperations.opsForValue().get(cacheKey);
+                                stringOperations.getExpire(cacheKey, TimeUnit.MILLISECONDS);
+                                return null;
+                            }
+                        }, RedisSerializer.byteArray())),
+                StudentService::isCachedAnswer, cached -> resolveCachedJson(id, cached),
+                () -> load(id).thenApply(StudentService::toJson));
+    }
+
+    private static StudentJson toJson(Student student) {
+        return student == null ? null : StudentJson.of(student);
+    }
+
+    private CompletableFuture<StudentJson> resolveCachedJson(Long id, List<Object> cached) {
+        if (cached != null && !cached.isEmpty() && cached.get(0) instanceof byte[] bytes) {
+            StudentJson json = StudentJson.wrap(bytes);
+            if (json != null) {
+                log.debug("Cache hit for student with id: {}", id);
+                metrics.redisHit();
+                refreshEarly(id, cached);
+                return CompletableFuture.completedFuture(json);
+            }
+            cached = new ArrayList<>(cached);
+            cached.set(0, redisTemplate.getValueSerializer().deserialize(bytes));
+        }
+        return resolveCached(id, cached).thenApply(StudentService::toJson);
+    }
+
+    /**
+     * Whether a {@code [value, ttl]} pipeline result holds a value, student or tombstone, rather
+     * than a miss.
+     */
+    private static boolean isCachedAnswer(List<Object> cached) {
+        return cached != null && !cached.isEmpty() && cached.get(0) != null;
+    }
+
+    /**
+     * Handles the {@code [value, ttl]} pipeline result of a cache read: a student is a hit, a
+     * tombstone means the student does not exist, anything else is loaded from the database.
+     */
+    private CompletableFuture<Student> resolveCached(Long id, List<Object> cached) {
+        Student cachedStudent = cached != null && !cached.isEmpty() && cached.get(0) instanceof Student student
+                ? student : null;
+
+        if (cachedStudent == null && cached != null && !cached.isEmpty()
+                && Constant.STUDENT_TOMBSTONE.equals(cached.get(0))) {
+            log.debug("Tombstone hit for student with id: {}", id);
+            metrics.redisTombstone();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (cachedStudent != null) {
+            log.debug("Cache hit for student with id: {}", id);
+            metrics.redisHit();
+            nearCache.put(cachedStudent);
+            refreshEarly(id, cached);
+            return CompletableFuture.completedFuture(cachedStudent);
+        }
+
+        log.debug("Cache miss for student with id: {}", id);
+        metrics.redisMiss();
+        return load(id);
+    }
+
+    /**
+     * Reloads the student in the background, as low priority work, when {@link #shouldRefreshEarly}
+     * says so for the TTL in {@code cached}.
+     */
+    private void refreshEarly(Long id, List<Object> cached) {
+        if (shouldRefreshEarly(cached.size() > 1 ? cached.get(1) : null)) {
+            singleFlight(inFlightRefreshes, id, () -> lanes.supply(ExecutionLanes.Lane.DATABASE_READ,
+                    ExecutionLanes.Priority.LOW, () -> loadAndCache(id, true)));
+        }
+    }
+
+    /**
+     * Loads the student and caches it. A fill after a miss may read a lagging replica, so it only
+     * writes a key that is still empty (NX): a writer that cached a newer version meanwhile keeps
+     * it. {@code replace} is for keys known to hold an entry that must be overwritten (refresh-ahead,
+     * entries without a version); those reads go to the primary, so they never cache an older row
+     * than the one they replace.
+     */
+    private Student loadAndCache(Long id, boolean replace) {
+        Student buffered = writeBehind.getPending(id);
+        if (buffered != null) {
+            nearCache.put(buffered);
+            return buffered;
+        }
+        long start = System.nanoTime();
+        Optional<Student> student = database(() -> replace
+                ? studentRepository.findLatestById(id)
+                : studentRepository.findById(id));
+        long elapsed = System.nanoTime() - start;
+        dbLoadNanos += (elapsed - dbLoadNanos) / 8;
+        metrics.cacheLoad(elapsed);
+
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        if (student.isEmpty()) {
+            redisGuard.write(cacheKey, () -> {
+                // NX must not keep an older value whose overwrite was lost
+                if (redisGuard.isUnsynced(cacheKey)) {
+                    redisTemplate.opsForValue().set(cacheKey, Constant.STUDENT_TOMBSTONE,
+                            Constant.TOMBSTONE_EXPIRY_SECONDS, TimeUnit.SECONDS);
+                } else {
+                    redisTemplate.opsForValue().setIfAbsent(cacheKey, Constant.STUDENT_TOMBSTONE,
+                            Constant.TOMBSTONE_EXPIRY_SECONDS, TimeUnit.SECONDS);
+                }
+            });
+            return null;
+        }
+        redisGuard.write(cacheKey, () -> {
+            if (replace || redisGuard.isUnsynced(cacheKey)) {
+                redisTemplate.opsForValue().set(cacheKey, student.get(), Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+            } else {
+                redisTemplate.opsForValue().setIfAbsent(cacheKey, student.get(),
+                        Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+            }
+        });
+        nearCache.put(student.get());
+        return student.get();
+    }
+
+    /**
+     * XFetch-style probabilistic early expiration: the closer a key is to expiring, relative to
+     * how long a database load takes, the likelier a reader is to reload it in the background.
+     * Replicas only re-read Redis once their near cache entry lapses, so that window is taken
+     * off the remaining TTL; otherwise hot keys would rarely be seen close enough to expiry.
+     */
+    private boolean shouldRefreshEarly(Object ttlMillis) {
+        if (!(ttlMillis instanceof Long ttl) || ttl < 0) {
+            return false;
+        }
+        long remaining = ttl - TimeUnit.SECONDS.toMillis(Constant.NEAR_CACHE_EXPIRY_SECONDS);
+        double gap = dbLoadNanos / 1_000_000.0 * Constant.XFETCH_BETA
+                * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return gap >= remaining;
+    }
+
+    /**
+     * Starts {@code loader} unless a load for the same id is already running, in which case the
+     * caller shares the pending future instead of starting another one.
+     */
+    private <T> CompletableFuture<T> singleFlight(ConcurrentMap<Long, CompletableFuture<T>> inFlight,
+                                                  Long id, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> pending = inFlight.get(id);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<T> load = new CompletableFuture<>();
+        pending = inFlight.putIfAbsent(id, load);
+        if (pending != null) {
+            return pending;
+        }
+        CompletableFuture<T> started;
+        try {
+            started = loader.get();
+        } catch (RuntimeException ex) {
+            started = CompletableFuture.failedFuture(ex);
+        }
+        started.whenComplete((result, ex) -> {
+            inFlight.remove(id, load);
+            if (ex == null) {
+                load.complete(result);
+            } else {
+                load.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                        ? ex.getCause() : ex);
+            }
+        });
+        return load;
+    }
+
+    /**
+     * Resolves many students with one near-cache pass, one Redis MGET for the rest, a single
+     * IN query for the Redis misses that Hibernate's second-level cache cannot answer and one
+     * pipelined write to cache what the database returned.
+     * The MGET runs on the cache read lane and the IN query on the database read lane, as low
+     * priority work since it can cover hundreds of ids. Results follow the order of {@code ids};
+     * unknown ids are left out.
+     */
+    public CompletableFuture<List<Student>> getStudentsByIdsAsync(List<Long> ids) {
+        return getStudentsByIdsAsync(ids, ExecutionLanes.Priority.HIGH);
+    }
 
-            if (cachedStudent != null) {
-                log.info("Cache hit for student with id: {}", id);
-                return cachedStudent;
+    /**
+     * @param priority of the Redis half; {@link StudentCacheWarmer} warms at low priority. Only high
+     *                 priority reads count towards {@link StudentHotKeys}, so warming never ranks
+     *                 the ids it warms.
+     */
+    CompletableFuture<List<Student>> getStudentsByIdsAsync(List<Long> ids, ExecutionLanes.Priority priority) {
+        Map<Long, Student> found = new HashMap<>();
+        boolean record = priority == ExecutionLanes.Priority.HIGH;
+        return metrics.time("getMany", () -> lanes.supply(ExecutionLanes.Lane.CACHE_READ, priority, () -> {
+            List<Long> remaining = new ArrayList<>();
+            for (Long id : new LinkedHashSet<>(ids)) {
+                if (record) {
+                    hotKeys.record(id);
+                }
+                Student nearCached = nearCache.get(id);
+                if (nearCached != null) {
+                    found.put(id, nearCached);
+                } else {
+                    remaining.add(id);
+                }
             }
 
-            log.info("Cache miss for student with id: {}", id);
-            Optional<Student> student = studentRepository.findById(id);
-            student.ifPresent(value -> redisTemplate.opsForValue().set(cacheKey, value, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES));
+            List<Long> misses = new ArrayList<>();
+            if (!remaining.isEmpty()) {
+                List<String> cacheKeys = new ArrayList<>(remaining.size());
+                for (Long id : remaining) {
+                    cacheKeys.add(Constant.STUDENT_KEY_PREFIX + id);
+                }
+                List<Object> cachedStudents = redisGuard.read(cacheKeys.size(), () -> limiter.execute(ConcurrencyLimiter.Priority.HIGH,
+                        () -> redisTemplate.opsForValue().multiGet(cacheKeys)));
 
-            return student.orElse(null);
-        }, executorService);
+                for (int i = 0; i < remaining.size(); i++) {
+                    Object cached = cachedStudents == null || redisGuard.isUnsynced(cacheKeys.get(i))
+                            ? null : cachedStudents.get(i);
+                    if (cached instanceof Student student) {
+                        found.put(student.getId(), student);
+                        nearCache.put(student);
+                    } else if (!Constant.STUDENT_TOMBSTONE.equals(cached)) {
+                        misses.add(remaining.get(i));
+                    }
+                }
+                log.debug("Multi-get for {} students: {} from Redis, {} from database.",
+                        ids.size(), remaining.size() - misses.size(), misses.size());
+            }
+            return misses;
+        }).thenCompose(misses -> misses.isEmpty() ? CompletableFuture.completedFuture(null)
+                : lanes.supply(ExecutionLanes.Lane.DATABASE_READ, ExecutionLanes.Priority.LOW, () -> {
+                    loadMisses(misses, found);
+                    return null;
+                })).thenApply(ignored -> {
+            List<Student> students = new ArrayList<>(found.size());
+            for (Long id : ids) {
+                Student student = found.get(id);
+                if (student != null) {
+                    students.add(student);
+                }
+            }
+            return students;
+        }));
+    }
+
+    /**
+     * Loads the multi-get misses into {@code found} with one IN query and caches what it returned.
+     * A buffered write-behind update is newer than the row, so it wins, and the ids it covers are
+     * neither queried nor written to Redis; the flush will be followed by a fresh read anyway.
+     */
+    private void loadMisses(List<Long> misses, Map<Long, Student> found) {
+        List<Long> query = new ArrayList<>(misses.size());
+        for (Long id : misses) {
+            Student buffered = writeBehind.getPending(id);
+            if (buffered != null) {
+                found.put(id, buffered);
+                nearCache.put(buffered);
+            } else {
+                query.add(id);
+            }
+        }
+        if (query.isEmpty()) {
+            return;
+        }
+
+        List<Student> loaded = database(() -> studentRepository.findAllCachedById(query));
+        List<Student> cacheable = new ArrayList<>(loaded.size());
+        Set<Long> unknown = new HashSet<>(query);
+        for (Student student : loaded) {
+            unknown.remove(student.getId());
+            // an update may have been buffered while the query ran
+            Student buffered = writeBehind.getPending(student.getId());
+            if (buffered != null) {
+                found.put(student.getId(), buffered);
+                nearCache.put(buffered);
+            } else {
+                found.put(student.getId(), student);
+                nearCache.put(student);
+                cacheable.add(student);
+            }
+        }
+        cacheAll(cacheable, unknown, false);
+    }
+
+    public StudentStatsDto getStatistics() {
+        return statistics.snapshot();
+    }
+
+    public StudentTransferDto startImport(String file) {
+        return bulkTransfer.startImport(file);
+    }
+
+    public StudentTransferDto startExport(String file) {
+        return bulkTransfer.startExport(file);
+    }
+
+    public StudentTransferDto getTransfer() {
+        return bulkTransfer.getTransfer();
+    }
+
+    public boolean isSearchReady() {
+        return searchIndex.isReady();
+    }
+
+    /**
+     * Answers from {@link StudentSearchIndex} and loads the matching students through the same
+     * near cache, MGET and IN query path as {@link #getStudentsByIdsAsync}, so no query scans the
+     * table. Students that changed after the index answered and no longer match are left out, so a
+     * page can come back shorter than {@code limit}; {@code nextOffset} is null on the last page.
+     */
+    public CompletableFuture<StudentSearchDto> searchStudentsAsync(String namePrefix, Integer minAge, Integer maxAge,
+                                                                   int offset, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, Constant.SEARCH_MAX_LIMIT));
+        int from = Math.max(0, offset);
+        List<Long> ids;
+        try {
+            ids = metrics.timeSync("search",
+                    () -> searchIndex.search(namePrefix, minAge, maxAge, from, pageSize + 1));
+        } catch (IllegalArgumentException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        Integer nextOffset = ids.size() > pageSize ? from + pageSize : null;
+        List<Long> page = nextOffset == null ? ids : ids.subList(0, pageSize);
+        if (page.isEmpty()) {
+            return CompletableFuture.completedFuture(new StudentSearchDto(List.of(), null));
+        }
+        return getStudentsByIdsAsync(page).thenApply(students -> {
+            List<Student> matching = new ArrayList<>(students.size());
+            for (Student student : students) {
+                if (StudentSearchIndex.matches(student, namePrefix, minAge, maxAge)) {
+                    matching.add(student);
+                }
+            }
+            return new StudentSearchDto(matching, nextOffset);
+        });
+    }
+
+    /**
+     * Feeds {@code listener} with student changes on a virtual thread of its own until the listener
+     * throws. Resumes after {@code lastEventId} when given, see {@link StudentChangeFeed}. Rejected
+     * with a {@link RejectedExecutionException} when {@code student.changes.max-subscribers} streams
+     * are already open.
+     */
+    public CompletableFuture<Void> streamChangesAsync(String lastEventId, StudentChangeListener listener) {
+        if (!changeFeed.tryAcquireSubscriber()) {
+            throw new RejectedExecutionException("Too many open change streams");
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread.ofVirtual().name("student-changes-", 0).start(() -> {
+            changeStreams.add(Thread.currentThread());
+            try {
+                streamChanges(changeFeed.resumePosition(lastEventId), listener);
+                done.complete(null);
+            } catch (Throwable ex) {
+                done.completeExceptionally(ex);
+            } finally {
+                changeStreams.remove(Thread.currentThread());
+                changeFeed.releaseSubscriber();
+            }
+        });
+        return done;
+    }
+
+    private void streamChanges(StudentChangeFeed.Position position, StudentChangeListener listener)
+            throws IOException, InterruptedException {
+        long after = position.getAfter();
+        long lastAppendedAt = System.currentTimeMillis();
+        if (position.getCatchUpSince() != null) {
+            catchUp(position.getCatchUpSince(), listener);
+        }
+        while (!Thread.currentThread().isInterrupted()) {
+            List<StudentChangeEvent> events = changeFeed.readAfter(after, Constant.CHANGES_BATCH_SIZE);
+            if (events == null) {
+                StudentChangeFeed.Position behind = changeFeed.catchUpFrom(lastAppendedAt);
+                after = behind.getAfter();
+                lastAppendedAt = System.currentTimeMillis();
+                catchUp(behind.getCatchUpSince(), listener);
+            } else if (events.isEmpty()) {
+                if (!changeFeed.await(after, Constant.CHANGES_HEARTBEAT_MILLIS)) {
+                    listener.onIdle();
+                }
+            } else {
+                for (StudentChangeEvent event : events) {
+                    listener.onChange(event, changeFeed.eventId(event));
+                }
+                StudentChangeEvent last = events.get(events.size() - 1);
+                after = last.getSequence();
+                lastAppendedAt = last.getReceivedAt();
+            }
+        }
+    }
+
+    /**
+     * Replays every student updated since {@code since} as an update, a page at a time.
+     */
+    private void catchUp(LocalDateTime since, StudentChangeListener listener) throws IOException {
+        long afterId = 0;
+        List<Student> students;
+        do {
+            long from = afterId;
+            students = databaseBulkhead.execute(() -> studentRepository.findUpdatedSince(
+                    since, from, Limit.of(Constant.CHANGES_BATCH_SIZE)));
+            for (Student student : students) {
+                listener.onChange(new StudentChangeEvent(StudentChangeEvent.UPDATED, student.getId(),
+                        student.getVersion(), student, System.currentTimeMillis()), null);
+                afterId = student.getId();
+            }
+        } while (students.size() == Constant.CHANGES_BATCH_SIZE);
     }
 
     public CompletableFuture<Student> saveStudentAsync(StudentDto studentDto) {
-        return CompletableFuture.supplyAsync(() -> {
+        return metrics.time("save", () -> lanes.supply(ExecutionLanes.Lane.WRITE, ExecutionLanes.Priority.HIGH, () -> {
             Student student = new Student();
             student.setAge(studentDto.getAge());
             student.setName(studentDto.getName());
 
-            Student savedStudent = studentRepository.save(student);
-            String cacheKey = Constant.STUDENT_KEY_PREFIX + savedStudent.getId();
-            redisTemplate.opsForValue().set(cacheKey, savedStudent, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+            Student savedStudent = database(() -> studentRepository.save(student));
+            cacheAndAnnounce(savedStudent);
+            searchIndex.put(savedStudent);
+            statistics.added(savedStudent.getAge());
+            changeFeed.publish(List.of(StudentChangeEvent.of(StudentChangeEvent.CREATED, savedStudent)));
 
-            log.info("Saved student with id: {} and cached it.", savedStudent.getId());
+            log.debug("Saved student with id: {} and cached it.", savedStudent.getId());
             return savedStudent;
-        }, executorService);
+        }));
+    }
+
+    public CompletableFuture<List<Student>> saveStudentsBatchAsync(List<StudentDto> studentDtos) {
+        return metrics.time("saveBatch", () -> lanes.supply(ExecutionLanes.Lane.WRITE, ExecutionLanes.Priority.LOW, () -> {
+            List<Student> students = new ArrayList<>(studentDtos.size());
+            for (StudentDto studentDto : studentDtos) {
+                Student student = new Student();
+                student.setAge(studentDto.getAge());
+                student.setName(studentDto.getName());
+                students.add(student);
+            }
+
+            List<Student> savedStudents = databaseBulkhead.execute(
+                    () -> studentRepository.insertAll(students, Constant.JDBC_BATCH_SIZE));
+            cacheAll(savedStudents, List.of(), true);
+            searchIndex.putAll(savedStudents);
+            List<StudentChangeEvent> changes = new ArrayList<>(savedStudents.size());
+            for (Student savedStudent : savedStudents) {
+                statistics.added(savedStudent.getAge());
+                changes.add(StudentChangeEvent.of(StudentChangeEvent.CREATED, savedStudent));
+            }
+            changeFeed.publish(changes);
+
+            log.debug("Saved batch of {} students and cached them.", savedStudents.size());
+            return savedStudents;
+        }));
     }
 
     public CompletableFuture<Student> updateStudentAsync(Long id, Student student) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!studentRepository.existsById(id)) {
-                log.warn("Student with id: {} not found for update.", id);
-                return null;
+        return updateStudentAsync(id, student, null);
+    }
+
+    /**
+     * Updates name and age with a single UPDATE statement that also bumps the version. With an
+     * {@code expectedVersion} the statement only matches that version, so a stale writer costs one
+     * round trip and gets a {@link StudentVersionConflictException}. Without one the row is
+     * overwritten and re-read once to learn its new version. Returns null for unknown students.
+     */
+    public CompletableFuture<Student> updateStudentAsync(Long id, Student student, Long expectedVersion) {
+        return metrics.time("update", () -> lanes.supply(ExecutionLanes.Lane.WRITE, ExecutionLanes.Priority.HIGH, () -> {
+            if (writeBehind.isEnabled()) {
+                return bufferUpdate(id, student, expectedVersion);
             }
 
-            student.setId(id);
-            Student updatedStudent = studentRepository.save(student);
+            LocalDateTime now = LocalDateTime.now();
+            Student updatedStudent;
+            if (expectedVersion != null) {
+                int updated = database(() -> studentRepository.updateByIdAndVersion(
+                        id, expectedVersion, student.getName(), student.getAge(), now));
+                if (updated == 0) {
+                    throw new StudentVersionConflictException(id, expectedVersion);
+                }
+                student.setId(id);
+                student.setVersion(expectedVersion + 1);
+                updatedStudent = student;
+            } else {
+                int updated = database(() -> studentRepository.updateById(
+                        id, student.getName(), student.getAge(), now));
+                updatedStudent = updated == 0 ? null
+                        : database(() -> studentRepository.findLatestById(id)).orElse(null);
+                if (updatedStudent == null) {
+                    log.debug("Student with id: {} not found for update.", id);
+                    return null;
+                }
+            }
 
-            String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
-            redisTemplate.opsForValue().set(cacheKey, updatedStudent, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+            cacheAndAnnounce(updatedStudent);
+            statistics.updated(searchIndex.ageOf(id), updatedStudent.getAge());
+            searchIndex.put(updatedStudent);
+            changeFeed.publish(List.of(StudentChangeEvent.of(StudentChangeEvent.UPDATED, updatedStudent)));
 
-            log.info("Updated student with id: {} and refreshed cache.", updatedStudent.getId());
+            log.debug("Updated student with id: {} to version {} and refreshed cache.", id, updatedStudent.getVersion());
             return updatedStudent;
-        }, executorService);
+        }));
+    }
+
+    /**
+     * Write-behind update: the cache gets the new state right away, the database on the next flush.
+     * The version check runs against the cached state, so two writers racing on the same version
+     * can both succeed here; only the write-through path gives a strict compare-and-set. The flush
+     * never lowers a stored version, so the loser is dropped then rather than overwriting the winner.
+     */
+    private Student bufferUpdate(Long id, Student student, Long expectedVersion) {
+        Student current = nearCache.get(id);
+        if (current == null) {
+            current = readThrough(id).join();
+        }
+        if (current != null && current.getVersion() == null) {
+            current = loadAndCache(id, true);
+        }
+        if (current == null) {
+            if (expectedVersion != null) {
+                throw new StudentVersionConflictException(id, expectedVersion);
+            }
+            log.debug("Student with id: {} not found for update.", id);
+            return null;
+        }
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new StudentVersionConflictException(id, expectedVersion);
+        }
+
+        student.setId(id);
+        student.setVersion(current.getVersion() + 1);
+        writeBehind.enqueue(student);
+        cacheAndAnnounce(student);
+        statistics.updated(searchIndex.ageOf(id), student.getAge());
+        searchIndex.put(student);
+        changeFeed.publish(List.of(StudentChangeEvent.of(StudentChangeEvent.UPDATED, student)));
+
+        log.debug("Buffered update for student with id: {} and refreshed cache.", id);
+        return student;
     }
 
     public CompletableFuture<Boolean> deleteStudentAsync(Long id) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!studentRepository.existsById(id)) {
-                log.warn("Student with id: {} not found for deletion.", id);
-                return false;
+        return deleteStudentAsync(id, null);
+    }
+
+    /**
+     * Deletes with a single DELETE statement, restricted to {@code expectedVersion} when given.
+     * A pending write-behind update is newer than the row, so its version is checked instead.
+     */
+    public CompletableFuture<Boolean> deleteStudentAsync(Long id, Long expectedVersion) {
+        return metrics.time("delete", () -> lanes.supply(ExecutionLanes.Lane.WRITE, ExecutionLanes.Priority.HIGH, () -> {
+            Long rowVersion = expectedVersion;
+            Student pending = writeBehind.getPending(id);
+            if (expectedVersion != null && pending != null) {
+                if (!expectedVersion.equals(pending.getVersion())) {
+                    throw new StudentVersionConflictException(id, expectedVersion);
+                }
+                rowVersion = null;
             }
 
-            studentRepository.deleteById(id);
+            Long version = rowVersion;
+            int deleted = database(() -> version == null
+                    ? studentRepository.removeById(id)
+                    : studentRepository.removeByIdAndVersion(id, version));
+            if (deleted == 0) {
+                if (version != null) {
+                    throw new StudentVersionConflictException(id, version);
+                }
+                log.debug("Student with id: {} not found for deletion.", id);
+                return false;
+            }
 
+            writeBehind.discard(id);
             String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
-            redisTemplate.delete(cacheKey);
+            nearCache.evictLocal(id);
+            redisGuard.write(cacheKey, () -> {
+                redisTemplate.opsForValue().set(cacheKey, Constant.STUDENT_TOMBSTONE,
+                        Constant.TOMBSTONE_EXPIRY_SECONDS, TimeUnit.SECONDS);
+                nearCache.publishInvalidation(id);
+            });
+            statistics.removed(searchIndex.ageOf(id));
+            searchIndex.remove(id);
+            changeFeed.publish(List.of(StudentChangeEvent.deleted(id)));
 
-            log.info("Deleted student with id: {} and cleared cache.", id);
+            log.debug("Deleted student with id: {} and left a tombstone in the cache.", id);
             return true;
-        }, executorService);
+        }));
+    }
+
+    /**
+     * A buffered update the database turned down is still what the caches hold; drop it there, so
+     * the next read loads whatever won.
+     */
+    private void dropSuperseded(Student student) {
+        Long id = student.getId();
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + id;
+        nearCache.evictLocal(id);
+        redisGuard.write(cacheKey, () -> {
+            redisTemplate.delete(cacheKey);
+            nearCache.publishInvalidation(id);
+        });
+    }
+
+    /**
+     * Point database calls go through the adaptive limiter as low priority work, then the bulkhead.
+     * Bulk reads and batch inserts skip the limiter: their latency says nothing about a single
+     * call's, and would only skew its baseline.
+     */
+    private <T> T database(Supplier<T> call) {
+        return limiter.execute(ConcurrencyLimiter.Priority.LOW, () -> databaseBulkhead.execute(call));
+    }
+
+    /**
+     * Keeps {@code student} in the near cache and queues its Redis write; the other replicas are
+     * told to drop their copy once that write has landed.
+     */
+    private void cacheAndAnnounce(Student student) {
+        nearCache.put(student);
+        String cacheKey = Constant.STUDENT_KEY_PREFIX + student.getId();
+        redisGuard.write(cacheKey, () -> {
+            redisTemplate.opsForValue().set(cacheKey, student, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+            nearCache.publishInvalidation(student.getId());
+        });
+    }
+
+    /**
+     * Writes every student, plus a tombstone for every id in {@code missingIds}, to Redis with one
+     * pipelined round trip per {@link RedisGuard} write lane. MSET cannot carry a TTL, so this
+     * pipelines one SET ... EX per key instead. Unless {@code replace} is set (the students were
+     * just written), they may come from a lagging replica, so every key is written with NX and
+     * never replaces a student cached in the meantime, unless the key's last write was lost.
+     */
+    @SuppressWarnings("unchecked")
+    private void cacheAll(List<Student> students, Collection<Long> missingIds, boolean replace) {
+        Map<String, Object> values = new HashMap<>();
+        for (Student student : students) {
+            values.put(Constant.STUDENT_KEY_PREFIX + student.getId(), student);
+        }
+        for (Long id : missingIds) {
+            values.put(Constant.STUDENT_KEY_PREFIX + id, Constant.STUDENT_TOMBSTONE);
+        }
+        redisGuard.writeAll(values.keySet(), keys -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                ValueOperations<String, Object> valueOperations =
+                        ((RedisOperations<String, Object>) operations).opsForValue();
+                for (String key : keys) {
+                    Object value = values.get(key);
+                    long ttl = value instanceof Student
+                            ? TimeUnit.MINUTES.toSeconds(Constant.REDIS_EXPIRY_TIME) : Constant.TOMBSTONE_EXPIRY_SECONDS;
+                    if (replace || redisGuard.isUnsynced(key)) {
+                        valueOperations.set(key, value, ttl, TimeUnit.SECONDS);
+                    } else {
+                        valueOperations.setIfAbsent(key, value, ttl, TimeUnit.SECONDS);
+                    }
+                }
+                return null;
+            }
+        }));
     }
 }
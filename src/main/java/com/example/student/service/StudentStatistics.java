@@ -0,0 +1,141 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentStatsDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Student count and age distribution kept in memory, so {@code GET /students/stats} never reads
+ * the table.
+ * <p>
+ * The only state is one {@link LongAdder} per distinct age; count, min, max and mean are derived
+ * from it when a snapshot is taken. Writes adjust the counters without locking. An update or
+ * delete needs the student's previous age, which comes from {@link StudentSearchIndex}; changes it
+ * cannot place, and writes made by other instances, are left to reconciliation.
+ * <p>
+ * Reconciliation runs {@code group by age} against the primary database every
+ * {@code student.stats.reconcile-interval-ms}, the first time right after startup. Counters are
+ * read before and after the query; each one that did not move meanwhile is set to the database
+ * count. A counter that moved may or may not have its change in the query's result, so it is left
+ * alone until the next run. A write that commits before the query but is recorded only after the
+ * second read can still be counted twice until then, so the figures are close, not exact.
+ */
+@Component
+public class StudentStatistics {
+    private static final Logger log = LoggerFactory.getLogger(StudentStatistics.class);
+
+    private final StudentRepository studentRepository;
+    private final ConcurrentMap<Integer, LongAdder> ageCounts = new ConcurrentHashMap<>();
+    private volatile Instant reconciledAt;
+
+    public StudentStatistics(StudentRepository studentRepository) {
+        this.studentRepository = studentRepository;
+    }
+
+    public void added(int age) {
+        counter(age).increment();
+    }
+
+    /**
+     * Records an age change. A null {@code previousAge} means it is unknown and nothing is recorded.
+     */
+    public void updated(Integer previousAge, int age) {
+        if (previousAge == null || previousAge == age) {
+            return;
+        }
+        counter(previousAge).decrement();
+        counter(age).increment();
+    }
+
+    /**
+     * Records a delete. A null {@code previousAge} means it is unknown and nothing is recorded.
+     */
+    public void removed(Integer previousAge) {
+        if (previousAge != null) {
+            counter(previousAge).decrement();
+        }
+    }
+
+    public StudentStatsDto snapshot() {
+        SortedMap<Integer, Long> histogram = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : ageCounts.entrySet()) {
+            long count = entry.getValue().sum();
+            if (count > 0) {
+                histogram.put(entry.getKey(), count);
+            }
+        }
+        long total = 0;
+        long ageSum = 0;
+        for (Map.Entry<Integer, Long> entry : histogram.entrySet()) {
+            total += entry.getValue();
+            ageSum += entry.getKey() * entry.getValue();
+        }
+        if (total == 0) {
+            return new StudentStatsDto(0, null, null, null, histogram, reconciledAt);
+        }
+        return new StudentStatsDto(total, histogram.firstKey(), histogram.lastKey(), (double) ageSum / total,
+                histogram, reconciledAt);
+    }
+
+    @Scheduled(fixedDelayString = "${student.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        Map<Integer, Long> before = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : ageCounts.entrySet()) {
+            before.put(entry.getKey(), entry.getValue().sum());
+        }
+        List<Object[]> rows;
+        try {
+            rows = studentRepository.countByAge();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to reconcile student statistics", ex);
+            return;
+        }
+
+        Map<Integer, Long> actual = new HashMap<>();
+        for (Object[] row : rows) {
+            actual.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        Set<Integer> ages = new HashSet<>(actual.keySet());
+        ages.addAll(before.keySet());
+        ages.addAll(ageCounts.keySet());
+        long drift = 0;
+        int busy = 0;
+        for (Integer age : ages) {
+            LongAdder counter = counter(age);
+            long after = counter.sum();
+            if (after != before.getOrDefault(age, 0L)) {
+                busy++;
+                continue;
+            }
+            long delta = actual.getOrDefault(age, 0L) - after;
+            if (delta != 0) {
+                counter.add(delta);
+                drift += Math.abs(delta);
+            }
+        }
+        reconciledAt = Instant.now();
+        if (drift > 0 || busy > 0) {
+            log.info("Reconciled student statistics against the database, adjusted counts by {} across {} ages, "
+                    + "left {} ages with concurrent writes for the next run", drift, actual.size(), busy);
+        }
+    }
+
+    private LongAdder counter(int age) {
+        return ageCounts.computeIfAbsent(age, ignored -> new LongAdder());
+    }
+}
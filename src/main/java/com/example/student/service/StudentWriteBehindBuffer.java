@@ -0,0 +1,223 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Opt-in write-behind buffer for student updates ({@code student.write-behind.enabled}).
+ * <p>
+ * Updates are coalesced per id, so a student updated many times between flushes costs one
+ * UPDATE. A single flusher thread writes them in JDBC batches once {@code batch-size} ids are
+ * pending or every {@code flush-interval-ms}. An entry is only removed after its batch commits,
+ * and only if no newer state replaced it meanwhile, so per-student updates reach the database in
+ * order and a failed batch is retried on the next flush. Rows are only written while their stored
+ * version is below the buffered one: another instance or a write-through update that got there
+ * first wins, and the losing update is handed to the {@link #onConflict} listeners so cached copies
+ * of it can be dropped.
+ * <p>
+ * Pending state lives in memory only, and updates are acknowledged before they are written:
+ * updates not yet flushed are lost if the process dies without running {@link #shutdown()}.
+ * <p>
+ * At most {@code max-pending} distinct ids can wait; further ids block for up to
+ * {@link Constant#WRITE_BEHIND_OFFER_MILLIS} and are then rejected.
+ */
+@Component
+public class StudentWriteBehindBuffer {
+    private static final Logger log = LoggerFactory.getLogger(StudentWriteBehindBuffer.class);
+
+    private final StudentRepository studentRepository;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Semaphore capacity;
+    private final Map<Long, Student> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final List<Consumer<Student>> conflictListeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public StudentWriteBehindBuffer(StudentRepository studentRepository, DatabaseBulkhead databaseBulkhead,
+                                    @Value("${student.write-behind.enabled:false}") boolean enabled,
+                                    @Value("${student.write-behind.max-pending:10000}") int maxPending,
+                                    @Value("${student.write-behind.batch-size:" + Constant.JDBC_BATCH_SIZE + "}") int batchSize,
+                                    @Value("${student.write-behind.flush-interval-ms:200}") long flushIntervalMillis) {
+        this.studentRepository = studentRepository;
+        this.databaseBulkhead = databaseBulkhead;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.capacity = new Semaphore(maxPending);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("student-write-behind").factory());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Write-behind enabled: batch size {}, flush interval {} ms", batchSize, flushIntervalMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(Constant.WRITE_BEHIND_SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Write-behind flusher did not stop in time.");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            while (!pending.isEmpty()) {
+                flush();
+            }
+            log.info("Write-behind buffer drained.");
+        } catch (RuntimeException ex) {
+            log.error("Dropping {} pending student updates after a failed final flush.", pending.size(), ex);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Latest buffered state for {@code id}, or {@code null} if nothing is waiting to be written.
+     */
+    public Student getPending(Long id) {
+        return pending.get(id);
+    }
+
+    /**
+     * Buffers {@code student}, replacing a pending update for the same id unless that one carries
+     * a higher version, so racing writers can never leave an older state behind.
+     */
+    public void enqueue(Student student) {
+        Long id = student.getId();
+        if (pending.computeIfPresent(id, (key, previous) -> newer(previous, student)) == null) {
+            acquireSlot(id);
+            boolean[] slotTaken = new boolean[1];
+            pending.compute(id, (key, previous) -> {
+                slotTaken[0] = previous != null;
+                return previous == null ? student : newer(previous, student);
+            });
+            if (slotTaken[0]) {
+                capacity.release();
+            }
+        }
+        if (pending.size() >= batchSize && flusher != null && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * Registers a listener for buffered updates the database turned down, called on the flusher
+     * thread after the batch commits.
+     */
+    public void onConflict(Consumer<Student> listener) {
+        conflictListeners.add(listener);
+    }
+
+    /**
+     * Forgets any buffered update for a student that is being deleted.
+     */
+    public void discard(Long id) {
+        if (pending.remove(id) != null) {
+            capacity.release();
+        }
+    }
+
+    /**
+     * Writes out what was pending when the flush started, one batch at a time, so a hot id that
+     * keeps changing cannot keep the flusher busy forever. Returns the number of rows written.
+     */
+    int flush() {
+        flushRequested.set(false);
+        int budget = pending.size();
+        int written = 0;
+        while (written < budget && !pending.isEmpty()) {
+            List<Student> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+            for (Student student : pending.values()) {
+                batch.add(student);
+                if (batch.size() == batchSize) {
+                    break;
+                }
+            }
+            int[] counts = databaseBulkhead.execute(() -> studentRepository.updateAll(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                Student student = batch.get(i);
+                if (pending.remove(student.getId(), student)) {
+                    capacity.release();
+                }
+                if (i < counts.length && counts[i] == 0) {
+                    conflict(student);
+                }
+            }
+            written += batch.size();
+        }
+        return written;
+    }
+
+    private void conflict(Student student) {
+        log.warn("Buffered update of student with id: {} to version {} lost to a newer write or a delete.",
+                student.getId(), student.getVersion());
+        for (Consumer<Student> listener : conflictListeners) {
+            try {
+                listener.accept(student);
+            } catch (RuntimeException ex) {
+                log.warn("Write-behind conflict listener failed for student with id: {}.", student.getId(), ex);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind flush failed, {} updates stay pending.", pending.size(), ex);
+        }
+    }
+
+    private static Student newer(Student previous, Student student) {
+        return previous.getVersion() != null && student.getVersion() != null
+                && previous.getVersion() > student.getVersion() ? previous : student;
+    }
+
+    private void acquireSlot(Long id) {
+        try {
+            if (!capacity.tryAcquire(Constant.WRITE_BEHIND_OFFER_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Write-behind buffer is full, rejecting update for student " + id);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for write-behind capacity", ex);
+        }
+    }
+}
@@ -4,6 +4,36 @@ public class Constant {
     public static final String STUDENT_KEY_PREFIX = "student:";
     public static final int REDIS_EXPIRY_TIME=10;
     public static final int THREAD_POOL_SIZE=10;
+    public static final String STUDENT_INVALIDATION_CHANNEL = "student:invalidate";
+    public static final int NEAR_CACHE_MAX_SIZE=10_000;
+    public static final int NEAR_CACHE_EXPIRY_SECONDS=30;
+    public static final int PAGE_DEFAULT_LIMIT=100;
+    public static final int PAGE_MAX_LIMIT=1000;
+    public static final int STREAM_FETCH_SIZE=500;
+    public static final int JDBC_BATCH_SIZE=500;
+    public static final int BATCH_MAX_SIZE=10_000;
+    public static final int MULTI_GET_MAX_IDS=500;
+    public static final double XFETCH_BETA=1.0;
+    public static final int EXECUTOR_QUEUE_CAPACITY=1000;
+    public static final int BULKHEAD_WAIT_MILLIS=1000;
+    public static final int RETRY_AFTER_SECONDS=1;
+    public static final int WRITE_BEHIND_OFFER_MILLIS=100;
+    public static final int WRITE_BEHIND_SHUTDOWN_SECONDS=10;
+    public static final String STUDENT_TOMBSTONE = "__missing__";
+    public static final int TOMBSTONE_EXPIRY_SECONDS=60;
+    public static final int STUDENT_ID_ALLOCATION_SIZE=50;
+    public static final int SEARCH_DEFAULT_LIMIT=20;
+    public static final int SEARCH_MAX_LIMIT=MULTI_GET_MAX_IDS;
+    public static final int SEARCH_AGE_BUCKETS=150;
+    public static final int WARMUP_PARALLELISM=4;
+    public static final String STUDENT_CHANGES_CHANNEL = "student:changes";
+    public static final int CHANGES_BATCH_SIZE=256;
+    public static final int CHANGES_HEARTBEAT_MILLIS=15_000;
+    public static final int CHANGES_CATCH_UP_SKEW_MILLIS=5000;
+    public static final int TRANSFER_MAX_LINE_BYTES=64 * 1024;
+    public static final int REDIS_HEDGE_MIN_DELAY_MICROS=500;
+    public static final String STUDENT_CACHE_REGION = "student";
+    public static final int ENTITY_CACHE_MAX_ENTRIES=10_000;
 
 
 }
@@ -0,0 +1,57 @@
+package com.example.student.utils;
+
+import com.example.student.entity.Student;
+
+/**
+ * Entity tags for students are their version, quoted: {@code "3"}. Shared by the servlet controller
+ * and the reactive handler.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Student student) {
+        return of(student.getVersion());
+    }
+
+    public static String of(Long version) {
+        return version == null ? null : String.valueOf(version);
+    }
+
+    /**
+     * Reads the version out of a single strong entity tag such as {@code "3"}. Weak tags, lists and
+     * anything else this API never issued give null.
+     */
+    public static Long parseVersion(String entityTag) {
+        String tag = entityTag.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return null;
+        }
+        try {
+            return Long.valueOf(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Weak comparison as required for If-None-Match: {@code *} or any listed tag, with or without
+     * the {@code W/} prefix, naming the current version.
+     */
+    public static boolean anyMatches(String header, Long version) {
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if ("*".equals(candidate)) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (version.equals(parseVersion(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.student.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        new JdbcTemplate(replica).execute("create table replication_lag (seconds bigint)");
+        new JdbcTemplate(replica).update("insert into replication_lag values (0)");
+
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), "select seconds from replication_lag", 5);
+        routing.checkReplicas();
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseReplica() {
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+        assertEquals("primary", readWrite.execute(status -> whoAmI()));
+        assertEquals("primary", whoAmI());
+    }
+
+    @Test
+    void testLaggingReplicaFallsBackToPrimary() {
+        new JdbcTemplate(replica).update("update replication_lag set seconds = 60");
+        routing.checkReplicas();
+
+        assertEquals(0, routing.healthyReplicaCount());
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+
+        new JdbcTemplate(replica).update("update replication_lag set seconds = 1");
+        routing.checkReplicas();
+
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    @Test
+    void testUnreachableReplicaFallsBackToPrimary() {
+        replica.close();
+
+        assertEquals("primary", readOnly.execute(status -> whoAmI()));
+        assertEquals(0, routing.healthyReplicaCount());
+    }
+
+    @Test
+    void testExhaustedReplicaPoolStaysInRotation() throws Exception {
+        try (Connection first = replica.getConnection(); Connection second = replica.getConnection()) {
+            assertEquals("primary", readOnly.execute(status -> whoAmI()));
+            assertEquals(1, routing.healthyReplicaCount());
+        }
+
+        assertEquals("replica", readOnly.execute(status -> whoAmI()));
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private static HikariDataSource database(String name) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(250);
+        config.setPoolName("test-" + name);
+        HikariDataSource dataSource = new HikariDataSource(config);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("create table node (name varchar(16))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.student.config;
+
+import com.example.student.dtos.StudentJson;
+import com.example.student.entity.Student;
+import com.example.student.utils.Constant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentCacheSerializerTest {
+
+    private final StudentCacheSerializer binary = new StudentCacheSerializer(StudentCacheSerializer.Format.BINARY);
+    private final StudentCacheSerializer json = new StudentCacheSerializer(StudentCacheSerializer.Format.JSON);
+    private final StudentCacheSerializer passthrough = new StudentCacheSerializer(StudentCacheSerializer.Format.PASSTHROUGH);
+
+    @Test
+    void testBinaryRoundTrip() {
+        Student student = student(42L, "Zoë Doe", 21);
+        student.setVersion(3L);
+
+        byte[] bytes = binary.serialize(student);
+        Student decoded = (Student) binary.deserialize(bytes);
+
+        assertEquals(StudentCacheSerializer.MAGIC, bytes[0]);
+        assertEquals(42L, decoded.getId());
+        assertEquals(3L, decoded.getVersion());
+        assertEquals("Zoë Doe", decoded.getName());
+        assertEquals(21, decoded.getAge());
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        Student student = student(42L, "John Doe", 21);
+        student.setVersion(1L);
+
+        assertTrue(binary.serialize(student).length * 2 < json.serialize(student).length);
+    }
+
+    @Test
+    void testBinaryReaderAcceptsLegacyJson() {
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(student(7L, "Jane Doe", 20));
+
+        Student decoded = (Student) binary.deserialize(legacy);
+
+        assertEquals(7L, decoded.getId());
+        assertEquals("Jane Doe", decoded.getName());
+    }
+
+    @Test
+    void testJsonReaderAcceptsBinary() {
+        Student decoded = (Student) json.deserialize(binary.serialize(student(7L, null, 20)));
+
+        assertEquals(7L, decoded.getId());
+        assertNull(decoded.getName());
+    }
+
+    @Test
+    void testBinaryReaderAcceptsVersion1() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + 8 + 4 + 4 + 4);
+        buffer.put(StudentCacheSerializer.MAGIC).put(StudentCacheSerializer.VERSION_1);
+        buffer.putLong(7L).putInt(20).putInt(4).put("Jane".getBytes(StandardCharsets.UTF_8));
+
+        Student decoded = (Student) binary.deserialize(buffer.array());
+
+        assertEquals(7L, decoded.getId());
+        assertNull(decoded.getVersion());
+        assertEquals(20, decoded.getAge());
+        assertEquals("Jane", decoded.getName());
+    }
+
+    @Test
+    void testPassthroughStoresTheResponseJson() throws IOException {
+        Student student = student(42L, "Zoë \"Z\" Doe", 21);
+        student.setVersion(3L);
+
+        byte[] bytes = passthrough.serialize(student);
+        StudentJson cached = StudentJson.wrap(bytes);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        cached.writeTo(body);
+
+        assertEquals(new ObjectMapper().writeValueAsString(student), body.toString(StandardCharsets.UTF_8));
+        assertEquals(body.size(), cached.length());
+        assertEquals(3L, cached.getVersion());
+        Student decoded = (Student) binary.deserialize(bytes);
+        assertEquals("Zoë \"Z\" Doe", decoded.getName());
+        assertEquals(3L, decoded.getVersion());
+        assertNull(StudentJson.wrap(binary.serialize(student)));
+        assertEquals(Constant.STUDENT_TOMBSTONE, passthrough.deserialize(passthrough.serialize(Constant.STUDENT_TOMBSTONE)));
+    }
+
+    @Test
+    void testUnknownVersionIsRejected() {
+        byte[] bytes = binary.serialize(student(7L, "Jane Doe", 20));
+        bytes[1] = 99;
+
+        assertThrows(SerializationException.class, () -> binary.deserialize(bytes));
+    }
+
+    private static Student student(Long id, String name, int age) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName(name);
+        student.setAge(age);
+        return student;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.student.config;
+
+import com.example.student.utils.Constant;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentIdSequenceInitializerTest {
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:sequence-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table students (id bigint primary key)");
+        jdbcTemplate.update("insert into students values (1), (2), (120)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void testSeedsTableAboveExistingIds() {
+        jdbcTemplate.execute("create table students_seq (next_val bigint)");
+        jdbcTemplate.update("insert into students_seq values (1)");
+
+        new StudentIdSequenceInitializer(dataSource, null).seed();
+
+        assertEquals(120 + Constant.STUDENT_ID_ALLOCATION_SIZE, nextVal());
+    }
+
+    @Test
+    void testInsertsMissingTableRow() {
+        jdbcTemplate.execute("create table students_seq (next_val bigint)");
+
+        new StudentIdSequenceInitializer(dataSource, null).seed();
+
+        assertEquals(120 + Constant.STUDENT_ID_ALLOCATION_SIZE, nextVal());
+    }
+
+    @Test
+    void testNeverLowersTable() {
+        jdbcTemplate.execute("create table students_seq (next_val bigint)");
+        jdbcTemplate.update("insert into students_seq values (1000)");
+
+        new StudentIdSequenceInitializer(dataSource, null).seed();
+
+        assertEquals(1000, nextVal());
+    }
+
+    @Test
+    void testRestartsSequenceAboveExistingIds() {
+        jdbcTemplate.execute("create sequence students_seq start with 1 increment by "
+                + Constant.STUDENT_ID_ALLOCATION_SIZE);
+
+        new StudentIdSequenceInitializer(dataSource, null).seed();
+
+        long hi = jdbcTemplate.queryForObject("select next value for students_seq", Long.class);
+        assertEquals(121, hi - Constant.STUDENT_ID_ALLOCATION_SIZE + 1);
+    }
+
+    @Test
+    void testLeavesEmptyTableAlone() {
+        jdbcTemplate.update("delete from students");
+        jdbcTemplate.execute("create table students_seq (next_val bigint)");
+        jdbcTemplate.update("insert into students_seq values (1)");
+
+        new StudentIdSequenceInitializer(dataSource, null).seed();
+
+        assertEquals(1, nextVal());
+    }
+
+    private long nextVal() {
+        return jdbcTemplate.queryForObject("select next_val from students_seq", Long.class);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.student.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void testLowPriorityLeavesHeadroomForHighPriority() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(5, 1, 5, 0.6);
+        CountDownLatch holding = new CountDownLatch(3);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> limiter.execute(ConcurrencyLimiter.Priority.LOW, () -> {
+                    holding.countDown();
+                    await(release);
+                    return null;
+                }));
+            }
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            assertThrows(RejectedExecutionException.class,
+                    () -> limiter.execute(ConcurrencyLimiter.Priority.LOW, () -> "low"));
+            assertEquals("high", limiter.execute(ConcurrencyLimiter.Priority.HIGH, () -> "high"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, 4, 200, 0.8);
+        for (int i = 0; i < 50; i++) {
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 5, 100);
+        }
+        double steady = limiter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 50, 100);
+        }
+
+        assertTrue(limiter.getLimit() < steady / 2, "limit " + limiter.getLimit() + " vs " + steady);
+        assertTrue(limiter.getLimit() >= 4);
+    }
+
+    @Test
+    void testLimitGrowsOnlyWhenUsed() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(20, 4, 200, 0.8);
+        for (int i = 0; i < 50; i++) {
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 5, 1);
+        }
+        assertEquals(20, limiter.getLimit());
+
+        for (int i = 0; i < 50; i++) {
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 5, (int) limiter.getLimit());
+        }
+        assertTrue(limiter.getLimit() > 20);
+        assertTrue(limiter.getLimit() <= 200);
+    }
+
+    @Test
+    void testFastCacheHitsDoNotHideASlowDatabase() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(100, 4, 200, 0.8);
+        for (int i = 0; i < 50; i++) {
+            for (int hit = 0; hit < 100; hit++) {
+                limiter.onSample(ConcurrencyLimiter.Priority.HIGH, TimeUnit.MICROSECONDS.toNanos(500), 100);
+            }
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 5, 100);
+        }
+        double steady = limiter.getLimit();
+
+        for (int i = 0; i < 50; i++) {
+            for (int hit = 0; hit < 100; hit++) {
+                limiter.onSample(ConcurrencyLimiter.Priority.HIGH, TimeUnit.MICROSECONDS.toNanos(500), 100);
+            }
+            window(limiter, ConcurrencyLimiter.Priority.LOW, 50, 100);
+        }
+
+        assertTrue(limiter.getLimit() < steady / 2, "limit " + limiter.getLimit() + " vs " + steady);
+    }
+
+    /**
+     * Records a few samples of {@code rttMillis} and closes the window.
+     */
+    private static void window(ConcurrencyLimiter limiter, ConcurrencyLimiter.Priority priority, long rttMillis,
+                               int inFlight) {
+        for (int i = 0; i < 5; i++) {
+            limiter.onSample(priority, TimeUnit.MILLISECONDS.toNanos(rttMillis), inFlight);
+        }
+        limiter.updateLimit();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
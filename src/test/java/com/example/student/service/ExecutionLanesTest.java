@@ -0,0 +1,107 @@
+package com.example.student.service;
+
+import com.example.student.service.ExecutionLanes.Lane;
+import com.example.student.service.ExecutionLanes.Priority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutionLanesTest {
+
+    private ExecutionLanes lanes;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        lanes.shutdown();
+    }
+
+    @Test
+    void testHighPriorityIsTakenFirst() throws Exception {
+        lanes = new ExecutionLanes("platform", 1, 10, 1, 10, 1, 10, 1.0, 60_000);
+        List<String> order = queueBehindBlockedWorker();
+
+        release.countDown();
+
+        assertEquals(List.of("high-1", "high-2", "low"), awaitAll(order));
+    }
+
+    @Test
+    void testLowPriorityIsNotStarved() throws Exception {
+        lanes = new ExecutionLanes("platform", 1, 10, 1, 10, 1, 10, 1.0, 0);
+        List<String> order = queueBehindBlockedWorker();
+
+        release.countDown();
+
+        assertEquals(List.of("low", "high-1", "high-2"), awaitAll(order));
+    }
+
+    @Test
+    void testLowPriorityWorkOnlyFillsItsShareOfTheQueue() {
+        lanes = new ExecutionLanes("platform", 1, 4, 1, 4, 1, 4, 0.5, 60_000);
+        blockWorker(Lane.WRITE);
+
+        lanes.execute(Lane.WRITE, Priority.LOW, () -> { });
+        lanes.execute(Lane.WRITE, Priority.LOW, () -> { });
+        assertThrows(RejectedExecutionException.class, () -> lanes.execute(Lane.WRITE, Priority.LOW, () -> { }));
+        lanes.execute(Lane.WRITE, Priority.HIGH, () -> { });
+        lanes.execute(Lane.WRITE, Priority.HIGH, () -> { });
+        assertThrows(RejectedExecutionException.class, () -> lanes.execute(Lane.WRITE, Priority.HIGH, () -> { }));
+    }
+
+    @Test
+    void testBusyWriteLaneDoesNotDelayReads() throws Exception {
+        lanes = new ExecutionLanes("platform", 1, 4, 1, 4, 1, 4, 1.0, 60_000);
+        blockWorker(Lane.WRITE);
+        for (int i = 0; i < 4; i++) {
+            lanes.execute(Lane.WRITE, Priority.HIGH, () -> { });
+        }
+
+        assertThrows(RejectedExecutionException.class, () -> lanes.execute(Lane.WRITE, Priority.HIGH, () -> { }));
+        assertEquals("hit", lanes.supply(Lane.CACHE_READ, Priority.HIGH, () -> "hit").get(1, TimeUnit.SECONDS));
+    }
+
+    private List<String> queueBehindBlockedWorker() {
+        blockWorker(Lane.CACHE_READ);
+        List<String> order = new CopyOnWriteArrayList<>();
+        lanes.execute(Lane.CACHE_READ, Priority.LOW, () -> order.add("low"));
+        lanes.execute(Lane.CACHE_READ, Priority.HIGH, () -> order.add("high-1"));
+        lanes.execute(Lane.CACHE_READ, Priority.HIGH, () -> order.add("high-2"));
+        return order;
+    }
+
+    private void blockWorker(Lane lane) {
+        CountDownLatch started = new CountDownLatch(1);
+        lanes.execute(lane, Priority.HIGH, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            fail(ex);
+        }
+    }
+
+    private static List<String> awaitAll(List<String> order) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (order.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        return List.copyOf(order);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.student.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+class RedisGuardTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private RedisGuard guard;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        guard = new RedisGuard(redisTemplate, 20, 50, 100, 60_000, 0, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSlowRedisIsHedgedByTheFallback() {
+        long start = System.nanoTime();
+        String result = read(sleepThen(1000, "redis"), () -> CompletableFuture.completedFuture("database"));
+
+        assertEquals("database", result);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+
+        String lateAnswer = read(sleepThen(50, "redis"),
+                () -> CompletableFuture.supplyAsync(sleepThen(1000, "database"), executor));
+
+        assertEquals("redis", lateAnswer);
+    }
+
+    @Test
+    void testOpenBreakerBypassesRedis() {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 20; i++) {
+            read(() -> {
+                calls.incrementAndGet();
+                throw new QueryTimeoutException("Redis command timed out");
+            }, () -> CompletableFuture.completedFuture("database"));
+        }
+
+        // a failure that outlived the hedge delay is recorded after the fallback has answered
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (guard.getState() != CircuitBreaker.State.OPEN && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, guard.getState());
+        assertEquals("database", read(() -> {
+            calls.incrementAndGet();
+            return "redis";
+        }, () -> CompletableFuture.completedFuture("database")));
+        assertNull(guard.read(1, () -> "redis"));
+        assertEquals(20, calls.get());
+    }
+
+    @Test
+    void testLostWriteIsBypassedUntilRepaired() {
+        guard.write("student:1", () -> {
+            throw new QueryTimeoutException("Redis command timed out");
+        });
+
+        assertTrue(guard.isUnsynced("student:1"));
+        assertEquals("database", read(() -> "stale", () -> CompletableFuture.completedFuture("database")));
+
+        guard.repairUnsynced();
+
+        verify(redisTemplate).delete(List.of("student:1"));
+        assertFalse(guard.isUnsynced("student:1"));
+        assertEquals("redis", read(() -> "redis", () -> CompletableFuture.completedFuture("database")));
+    }
+
+    private String read(Supplier<String> redis, Supplier<CompletableFuture<String>> database) {
+        return guard.readHedged("student:1", executor, redis, Objects::nonNull,
+                CompletableFuture::completedFuture, database).join();
+    }
+
+    private static Supplier<String> sleepThen(long millis, String value) {
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentTransferDto;
+import com.example.student.entity.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StudentBulkTransferTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @TempDir
+    Path directory;
+
+    private final List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong ids = new AtomicLong();
+    private final Set<Integer> importedChunks = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(studentRepository.insertChunk(anyString(), anyInt(), anyList(), anyInt()))
+                .thenAnswer(invocation -> insertChunk(invocation.getArgument(1), invocation.getArgument(2)));
+        when(studentRepository.findImportedChunks(anyString()))
+                .thenAnswer(invocation -> new ArrayList<>(importedChunks));
+        when(studentRepository.deleteImportedChunks(anyString())).thenAnswer(invocation -> {
+            int count = importedChunks.size();
+            importedChunks.clear();
+            return count;
+        });
+    }
+
+    @Test
+    void testCsvImportReadsEveryLineOnceAcrossChunks() throws IOException {
+        Files.writeString(directory.resolve("roster.csv"), "\uFEFFid,Name,age\r\n"
+                + "1,Ann,20\r\n"
+                + "2,\"Doe, \"\"Jo\"\"\",21\n"
+                + "\n"
+                + "3,Bob,not-a-number\n"
+                + "4,Zoë,22\n"
+                + "5,Cy,23", StandardCharsets.UTF_8);
+        StudentBulkTransfer transfer = transfer(7, 3);
+
+        transfer.startImport("roster.csv");
+        transfer.awaitTransfer();
+
+        StudentTransferDto result = transfer.getTransfer();
+        assertEquals(StudentTransferDto.COMPLETED, result.getState());
+        assertEquals(4, result.getStudents());
+        assertEquals(1, result.getRejected());
+        assertEquals(result.getTotalBytes(), result.getProcessedBytes());
+        assertEquals(List.of("Ann", "Cy", "Doe, \"Jo\"", "Zoë"), inserted.stream().sorted().toList());
+        assertTrue(importedChunks.isEmpty());
+        ArgumentCaptor<Collection<String>> evicted = ArgumentCaptor.captor();
+        verify(redisTemplate, atLeastOnce()).delete(evicted.capture());
+        assertEquals(List.of("student:1", "student:2", "student:3", "student:4"),
+                evicted.getAllValues().stream().flatMap(Collection::stream).sorted().toList());
+    }
+
+    @Test
+    void testFailedImportResumesFromCommittedChunks() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            lines.append("{\"name\":\"s").append(i).append("\",\"age\":").append(20 + i).append("}\n");
+        }
+        Files.writeString(directory.resolve("roster.ndjson"), lines);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 3) {
+                throw new IllegalStateException("database went away");
+            }
+            return insertChunk(invocation.getArgument(1), invocation.getArgument(2));
+        }).when(studentRepository).insertChunk(anyString(), anyInt(), anyList(), anyInt());
+        StudentBulkTransfer first = transfer(100, 1);
+
+        first.startImport("roster.ndjson");
+        first.awaitTransfer();
+
+        assertEquals(StudentTransferDto.FAILED, first.getTransfer().getState());
+        assertEquals(2, importedChunks.size());
+        int importedBefore = inserted.size();
+        assertTrue(importedBefore > 0 && importedBefore < 20);
+
+        doAnswer(invocation -> insertChunk(invocation.getArgument(1), invocation.getArgument(2)))
+                .when(studentRepository).insertChunk(anyString(), anyInt(), anyList(), anyInt());
+        StudentBulkTransfer second = transfer(100, 1);
+        second.startImport("roster.ndjson");
+        second.awaitTransfer();
+
+        assertEquals(StudentTransferDto.COMPLETED, second.getTransfer().getState());
+        assertEquals(20 - importedBefore, second.getTransfer().getStudents());
+        assertEquals(20, inserted.stream().distinct().count());
+        assertEquals(20, inserted.size());
+        assertTrue(importedChunks.isEmpty());
+    }
+
+    @Test
+    void testExportAndFileValidation() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<Student> consumer = invocation.getArgument(1);
+            consumer.accept(student(1L, "Ann", 20));
+            consumer.accept(student(2L, "Doe, Jo", 21));
+            return null;
+        }).when(studentRepository).streamAll(anyInt(), any());
+        StudentBulkTransfer transfer = transfer(1024, 1);
+
+        transfer.startExport("out/roster.csv");
+        transfer.awaitTransfer();
+
+        assertEquals(2, transfer.getTransfer().getStudents());
+        assertEquals("id,name,age,version\n1,Ann,20,0\n2,\"Doe, Jo\",21,0\n",
+                Files.readString(directory.resolve("out/roster.csv")));
+
+        assertThrows(IllegalArgumentException.class, () -> transfer.startImport("../roster.csv"));
+        assertThrows(IllegalArgumentException.class, () -> transfer.startExport("/etc/roster.csv"));
+        assertThrows(IllegalArgumentException.class, () -> transfer.startImport("missing.csv"));
+        assertThrows(IllegalArgumentException.class, () -> transfer.startExport("roster.txt"));
+    }
+
+    private StudentBulkTransfer transfer(int chunkBytes, int parallelism) {
+        return new StudentBulkTransfer(studentRepository, new DatabaseBulkhead(4),
+                new StudentSearchIndex(studentRepository), new StudentStatistics(studentRepository),
+                new StudentChangeFeed(redisTemplate, new ObjectMapper(), 1024, 1), redisTemplate,
+                new RedisGuard(redisTemplate, 20, 50, 100, 5000, 0, 1), new StudentNearCache(redisTemplate),
+                new ObjectMapper(), directory.toString(), chunkBytes, parallelism);
+    }
+
+    private List<Student> insertChunk(int chunk, List<Student> students) {
+        insert(students);
+        importedChunks.add(chunk);
+        return students;
+    }
+
+    private List<Student> insert(List<Student> students) {
+        for (Student student : students) {
+            student.setId(ids.incrementAndGet());
+            student.setVersion(0L);
+            inserted.add(student.getName());
+        }
+        return students;
+    }
+
+    private static Student student(Long id, String name, int age) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName(name);
+        student.setAge(age);
+        student.setVersion(0L);
+        return student;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.student.service;
+
+import com.example.student.dtos.StudentChangeEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentChangeFeedTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private StudentChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        feed = new StudentChangeFeed(redisTemplate, new ObjectMapper(), 4, 1);
+    }
+
+    @Test
+    void testReadAfterReportsEventsFallenOutOfTheRing() {
+        for (long id = 1; id <= 6; id++) {
+            feed.append(List.of(StudentChangeEvent.deleted(id)));
+        }
+
+        assertEquals(List.of(5L, 6L), feed.readAfter(4, 10).stream().map(StudentChangeEvent::getId).toList());
+        assertEquals(List.of(), feed.readAfter(6, 10));
+        assertNull(feed.readAfter(1, 10));
+        assertTrue(feed.hasAfter(5));
+        assertFalse(feed.hasAfter(6));
+    }
+
+    @Test
+    void testResumePosition() {
+        feed.append(List.of(StudentChangeEvent.deleted(1L), StudentChangeEvent.deleted(2L)));
+        StudentChangeEvent first = feed.readAfter(0, 1).get(0);
+
+        StudentChangeFeed.Position resumed = feed.resumePosition(feed.eventId(first));
+        assertEquals(1, resumed.getAfter());
+        assertNull(resumed.getCatchUpSince());
+
+        StudentChangeFeed.Position fresh = feed.resumePosition(null);
+        assertEquals(2, fresh.getAfter());
+        assertNull(fresh.getCatchUpSince());
+
+        StudentChangeFeed.Position foreign = feed.resumePosition("other:1:" + first.getReceivedAt());
+        assertEquals(2, foreign.getAfter());
+        assertNotNull(foreign.getCatchUpSince());
+
+        assertNull(feed.resumePosition("garbage").getCatchUpSince());
+    }
+
+    @Test
+    void testAwaitWakesOnAppend() throws Exception {
+        assertFalse(feed.await(0, 10));
+
+        CompletableFuture<Boolean> woken = CompletableFuture.supplyAsync(() -> {
+            try {
+                return feed.await(0, 5000);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        Thread.sleep(50);
+        feed.append(List.of(StudentChangeEvent.deleted(1L)));
+
+        assertTrue(woken.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testOnMessageAppendsOnlyOtherInstancesChanges() {
+        String own = feed.append(List.of(StudentChangeEvent.deleted(1L)));
+        feed.onMessage(new DefaultMessage(new byte[0], own.getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(1, feed.head());
+
+        String foreign = "another-instance" + own.substring(own.indexOf('|'));
+        feed.onMessage(new DefaultMessage(new byte[0], foreign.getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(2, feed.head());
+        assertEquals(1L, feed.readAfter(1, 1).get(0).getId());
+
+        assertTrue(feed.tryAcquireSubscriber());
+        assertFalse(feed.tryAcquireSubscriber());
+        feed.releaseSubscriber();
+        assertTrue(feed.tryAcquireSubscriber());
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.student.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudentHotKeysTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testHottestKeepsFrequentIdsOverOneOffs() {
+        StudentHotKeys hotKeys = new StudentHotKeys(true, directory.resolve("hot.bin").toString(), 10, 1);
+        for (int round = 0; round < 50; round++) {
+            for (long id = 1; id <= 10; id++) {
+                hotKeys.record(id);
+            }
+            for (long id = 0; id < 20; id++) {
+                hotKeys.record(1_000L + round * 20 + id);
+            }
+        }
+
+        List<Long> hottest = hotKeys.hottest();
+        assertEquals(10, hottest.size());
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), new HashSet<>(hottest));
+    }
+
+    @Test
+    void testSampledRecordingStillFindsHotIds() {
+        StudentHotKeys hotKeys = new StudentHotKeys(true, directory.resolve("hot.bin").toString(), 10, 4);
+        for (int round = 0; round < 400; round++) {
+            for (long id = 1; id <= 10; id++) {
+                hotKeys.record(id);
+            }
+            for (long id = 0; id < 20; id++) {
+                hotKeys.record(1_000L + round * 20 + id);
+            }
+        }
+
+        assertEquals(Set.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L), new HashSet<>(hotKeys.hottest()));
+    }
+
+    @Test
+    void testSnapshotRoundTrip() throws IOException {
+        Path file = directory.resolve("nested").resolve("hot.bin");
+        StudentHotKeys hotKeys = new StudentHotKeys(true, file.toString(), 100, 1);
+        for (long id : new long[]{5_000_000_000L, 7, 300, 7, 300, 300}) {
+            hotKeys.record(id);
+        }
+
+        hotKeys.snapshot();
+
+        assertTrue(Files.size(file) < 8 + 3 * 8);
+        assertEquals(List.of(7L, 300L, 5_000_000_000L), new StudentHotKeys(true, file.toString(), 100, 1).readSnapshot());
+    }
+
+    @Test
+    void testMissingOrForeignSnapshotIsIgnored() throws IOException {
+        Path file = directory.resolve("hot.bin");
+        StudentHotKeys hotKeys = new StudentHotKeys(true, file.toString(), 10, 1);
+        assertEquals(List.of(), hotKeys.readSnapshot());
+
+        Files.writeString(file, "not a snapshot");
+        assertEquals(List.of(), hotKeys.readSnapshot());
+
+        StudentHotKeys disabled = new StudentHotKeys(false, file.toString(), 10, 1);
+        disabled.record(1L);
+        assertEquals(List.of(), disabled.hottest());
+    }
+}
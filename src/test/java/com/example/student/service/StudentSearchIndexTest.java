@@ -0,0 +1,128 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentChangeEvent;
+import com.example.student.entity.Student;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+class StudentSearchIndexTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    private StudentSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        index = new StudentSearchIndex(studentRepository);
+    }
+
+    @Test
+    void testPrefixSearchIsNormalizedAndOrderedByName() {
+        index.putAll(List.of(
+                student(1L, "Zoë Adams", 20),
+                student(2L, "zoe  Brown", 30),
+                student(3L, "Zack", 40),
+                student(4L, "Anna", 20)));
+
+        assertEquals(List.of(1L, 2L), index.search("ZOE", null, null, 0, 10));
+        assertEquals(List.of(3L, 1L, 2L), index.search("z", null, null, 0, 10));
+        assertEquals(List.of(2L), index.search("zo", 25, null, 0, 10));
+        assertEquals(List.of(1L), index.search("z", null, null, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.search("  ", null, null, 0, 10));
+    }
+
+    @Test
+    void testAgeRangeIncludesOutOfRangeAgesInEdgeBuckets() {
+        index.putAll(List.of(
+                student(1L, "A", 18),
+                student(2L, "B", 200),
+                student(3L, "C", 250),
+                student(4L, "D", 21),
+                student(5L, "E", 19)));
+
+        assertEquals(List.of(1L, 5L, 4L), index.search(null, 18, 21, 0, 10));
+        assertEquals(List.of(4L), index.search(null, 18, 21, 2, 10));
+        assertEquals(List.of(3L), index.search(null, 201, null, 0, 10));
+        assertEquals(List.of(), index.search(null, 30, 20, 0, 10));
+    }
+
+    @Test
+    void testUpdatesMoveStudentsAndOlderVersionsAreIgnored() {
+        index.put(student(1L, "Alice", 20, 1L));
+        index.put(student(1L, "Bob", 25, 2L));
+        index.put(student(1L, "Alice", 20, 1L));
+
+        assertEquals(List.of(), index.search("ali", null, null, 0, 10));
+        assertEquals(List.of(1L), index.search("bob", 25, 25, 0, 10));
+
+        index.remove(1L);
+        assertEquals(List.of(), index.search("bob", null, null, 0, 10));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void testStudentsDeletedDuringLoadStayDeleted() {
+        doAnswer(invocation -> {
+            Consumer<Student> consumer = invocation.getArgument(1);
+            index.remove(2L);
+            consumer.accept(student(1L, "Alice", 20));
+            consumer.accept(student(2L, "Alan", 21));
+            return null;
+        }).when(studentRepository).streamAll(anyInt(), any());
+
+        assertFalse(index.isReady());
+        index.load();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), index.search("al", null, null, 0, 10));
+    }
+
+    @Test
+    void testChangesFromOtherInstancesAreApplied() {
+        StudentChangeFeed feed = new StudentChangeFeed(Mockito.mock(RedisTemplate.class), new ObjectMapper(), 4, 1);
+        index = new StudentSearchIndex(studentRepository, feed);
+        index.put(student(1L, "Alice", 20, 1L));
+        index.put(student(2L, "Alan", 21, 1L));
+
+        String message = feed.append(List.of(
+                StudentChangeEvent.of(StudentChangeEvent.UPDATED, student(1L, "Bob", 25, 2L)),
+                StudentChangeEvent.of(StudentChangeEvent.CREATED, student(3L, "Albert", 30, 0L)),
+                StudentChangeEvent.deleted(2L)));
+        String foreign = "another-instance" + message.substring(message.indexOf('|'));
+        feed.onMessage(new DefaultMessage(new byte[0], foreign.getBytes(StandardCharsets.UTF_8)), null);
+
+        assertEquals(List.of(3L), index.search("al", null, null, 0, 10));
+        assertEquals(List.of(1L), index.search("bob", null, null, 0, 10));
+    }
+
+    private static Student student(Long id, String name, int age) {
+        return student(id, name, age, 0L);
+    }
+
+    private static Student student(Long id, String name, int age, Long version) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName(name);
+        student.setAge(age);
+        student.setVersion(version);
+        return student;
+    }
+}
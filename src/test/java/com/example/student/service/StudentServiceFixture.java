@@ -0,0 +1,45 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.utils.Constant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Builds a {@link StudentService} around a mocked repository and Redis template, with small real
+ * collaborators in place of the beans the application context would supply.
+ */
+final class StudentServiceFixture {
+
+    private StudentServiceFixture() {
+    }
+
+    static StudentService create(StudentRepository studentRepository, RedisTemplate<String, Object> redisTemplate) {
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(Constant.THREAD_POOL_SIZE);
+        return create(studentRepository, redisTemplate,
+                new StudentWriteBehindBuffer(studentRepository, databaseBulkhead, false, 1, 1, 1));
+    }
+
+    static StudentService create(StudentRepository studentRepository, RedisTemplate<String, Object> redisTemplate,
+                                 StudentWriteBehindBuffer writeBehind) {
+        StudentNearCache nearCache = new StudentNearCache(redisTemplate);
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(Constant.THREAD_POOL_SIZE);
+        StudentSearchIndex searchIndex = new StudentSearchIndex(studentRepository);
+        StudentStatistics statistics = new StudentStatistics(studentRepository);
+        StudentChangeFeed changeFeed = new StudentChangeFeed(redisTemplate, new ObjectMapper(), 1024, 1);
+        RedisGuard redisGuard = new RedisGuard(redisTemplate, 20, 50, 100, 5000, 0, 1);
+        ExecutionLanes lanes = new ExecutionLanes("platform", Constant.THREAD_POOL_SIZE,
+                Constant.EXECUTOR_QUEUE_CAPACITY, 0, Constant.EXECUTOR_QUEUE_CAPACITY, 0,
+                Constant.EXECUTOR_QUEUE_CAPACITY, 1.0, 50, Constant.THREAD_POOL_SIZE);
+        return new StudentService(studentRepository, redisTemplate, nearCache, lanes, databaseBulkhead,
+                new StudentMetrics(new SimpleMeterRegistry()), writeBehind,
+                new ConcurrencyLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, 1.0),
+                searchIndex, statistics,
+                new StudentHotKeys(false, "target/student-hot-keys.bin", 1, 1),
+                changeFeed,
+                new StudentBulkTransfer(studentRepository, databaseBulkhead, searchIndex, statistics, changeFeed,
+                        redisTemplate, redisGuard, nearCache, new ObjectMapper(), "target/bulk", 1 << 20, 1),
+                redisGuard);
+    }
+}
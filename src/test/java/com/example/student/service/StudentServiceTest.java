@@ -2,23 +2,37 @@ package com.example.student.service;
 
 import com.example.student.Repository.StudentRepository;
 import com.example.student.dtos.StudentDto;
+import com.example.student.dtos.StudentJson;
+import com.example.student.dtos.StudentPageDto;
 import com.example.student.entity.Student;
+import com.example.student.exception.StudentVersionConflictException;
 import com.example.student.utils.Constant;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import org.slf4j.Logger;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,29 +46,23 @@ class StudentServiceTest {
     private RedisTemplate<String, Object> redisTemplate;
     @Mock
     private ValueOperations<String, Object> valueOperations;
-    @Mock
-    private Logger log;
-
     @InjectMocks
     private StudentService studentService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        studentService = new StudentService(studentRepository,redisTemplate);
+        studentService = StudentServiceFixture.create(studentRepository, redisTemplate);
         when(redisTemplate.opsForValue()).thenReturn(valueOperations);
     }
 
     @Test
     void testInit() {
-        studentService.init();
-        verify(log, times(1)).info("StudentService initialized with thread pool size: {}", Constant.THREAD_POOL_SIZE);
-    }
+        StudentWriteBehindBuffer writeBehind = mock(StudentWriteBehindBuffer.class);
 
-    @Test
-    void testCleanup() {
-        studentService.cleanup();
-        verify(log, times(1)).info("Shutting down executor service.");
+        StudentServiceFixture.create(studentRepository, redisTemplate, writeBehind).init();
+
+        verify(writeBehind, times(1)).onConflict(any());
     }
 
     @Test
@@ -69,14 +77,42 @@ class StudentServiceTest {
         student2.setName("Jane Doe");
 
         List<Student> mockStudents = Arrays.asList(student1, student2);
-        when(studentRepository.findAll()).thenReturn(mockStudents);
+        when(studentRepository.findAllDetached()).thenReturn(mockStudents);
         List<Student> result = studentService.getAllStudents();
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals("John Doe", result.get(0).getName());
         assertEquals("Jane Doe", result.get(1).getName());
-        verify(studentRepository, times(1)).findAll();
+        verify(studentRepository, times(1)).findAllDetached();
     }
+    @Test
+    void testGetStudentsPage() {
+        Student student1 = new Student();
+        student1.setId(11L);
+        Student student2 = new Student();
+        student2.setId(12L);
+        when(studentRepository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(2)))
+                .thenReturn(Arrays.asList(student1, student2));
+
+        StudentPageDto page = studentService.getStudentsPage(10L, 2);
+
+        assertEquals(2, page.getStudents().size());
+        assertEquals(12L, page.getNextAfter());
+    }
+
+    @Test
+    void testGetStudentsPage_lastPage() {
+        Student student = new Student();
+        student.setId(11L);
+        when(studentRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(Constant.PAGE_MAX_LIMIT)))
+                .thenReturn(List.of(student));
+
+        StudentPageDto page = studentService.getStudentsPage(null, Integer.MAX_VALUE);
+
+        assertEquals(1, page.getStudents().size());
+        assertNull(page.getNextAfter());
+    }
+
     @Test
     void testGetStudentByIdAsync_cacheHit() {
         Long studentId = 1L;
@@ -106,6 +142,151 @@ class StudentServiceTest {
 
         assertNotNull(result);
         assertEquals(student, result.join());
+        verify(valueOperations, timeout(5000).times(1))
+                .setIfAbsent("student:1", student, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+        verify(valueOperations, never()).set(eq("student:1"), any(), anyLong(), any());
+    }
+
+    @Test
+    void testGetStudentByIdAsync_nearCacheHit() {
+        Long studentId = 1L;
+        Student student = new Student();
+        student.setId(studentId);
+        student.setName("John Doe");
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+
+        studentService.getStudentByIdAsync(studentId).join();
+        Student result = studentService.getStudentByIdAsync(studentId).join();
+
+        assertEquals(student, result);
+        verify(studentRepository, times(1)).findById(studentId);
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void testGetStudentByIdAsync_coalescesConcurrentMisses() throws InterruptedException {
+        Long studentId = 1L;
+        Student student = new Student();
+        student.setId(studentId);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(studentRepository.findById(studentId)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(student);
+        });
+
+        CompletableFuture<Student> first = studentService.getStudentByIdAsync(studentId);
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Student> second = studentService.getStudentByIdAsync(studentId);
+        release.countDown();
+
+        assertEquals(student, first.join());
+        assertEquals(student, second.join());
+        verify(studentRepository, times(1)).findById(studentId);
+    }
+
+    @Test
+    void testGetStudentByIdAsync_refreshesEarlyNearExpiry() {
+        Long studentId = 1L;
+        Student student = new Student();
+        student.setId(studentId);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(Arrays.asList(student, 1L));
+        when(studentRepository.findLatestById(studentId)).thenReturn(Optional.of(student));
+
+        Student result = studentService.getStudentByIdAsync(studentId).join();
+
+        assertEquals(student, result);
+        verify(studentRepository, timeout(5000).times(1)).findLatestById(studentId);
+        verify(studentRepository, never()).findById(studentId);
+        verify(valueOperations, timeout(5000).times(1))
+                .set("student:1", student, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+    }
+
+    @Test
+    void testGetStudentJsonAsync_passesCachedBytesThrough() {
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Ann");
+        student.setVersion(2L);
+        byte[] cached = StudentJson.encode(student);
+        when(redisTemplate.executePipelined(any(SessionCallback.class), any(RedisSerializer.class)))
+                .thenReturn(Arrays.asList(cached, 600_000L));
+
+        StudentJson result = studentService.getStudentJsonAsync(1L).join();
+
+        assertEquals("{\"id\":1,\"name\":\"Ann\",\"age\":0,\"version\":2}",
+                StandardCharsets.UTF_8.decode(result.asByteBuffer()).toString());
+        assertEquals(2L, result.getVersion());
+        verify(redisTemplate, never()).getValueSerializer();
+        verify(studentRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetStudentJsonAsync_nearCacheHitReusesJson() {
+        Student student = new Student();
+        student.setId(1L);
+        student.setName("Ann");
+        student.setVersion(2L);
+        when(studentRepository.findById(1L)).thenReturn(Optional.of(student));
+        studentService.getStudentByIdAsync(1L).join();
+
+        StudentJson first = studentService.getStudentJsonAsync(1L).join();
+        StudentJson notModified = studentService.getStudentJsonAsync(1L, "\"2\"").join();
+
+        assertSame(first, studentService.getStudentJsonAsync(1L, "\"1\"").join());
+        assertEquals(2L, notModified.getVersion());
+        assertEquals(0, notModified.length());
+    }
+
+    @Test
+    void testGetStudentByIdAsync_tombstoneSkipsDatabase() {
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenReturn(Arrays.asList(Constant.STUDENT_TOMBSTONE, 30_000L));
+
+        assertNull(studentService.getStudentByIdAsync(1L).join());
+        verify(studentRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetStudentByIdAsync_missingStudentLeavesTombstone() {
+        when(studentRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertNull(studentService.getStudentByIdAsync(1L).join());
+        verify(valueOperations, times(1)).setIfAbsent("student:1", Constant.STUDENT_TOMBSTONE,
+                Constant.TOMBSTONE_EXPIRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testDeleteStudentAsync_evictsNearCache() {
+        Long studentId = 1L;
+        Student student = new Student();
+        student.setId(studentId);
+        when(studentRepository.findById(studentId)).thenReturn(Optional.of(student));
+        when(studentRepository.removeById(studentId)).thenReturn(1);
+
+        studentService.getStudentByIdAsync(studentId).join();
+        studentService.deleteStudentAsync(studentId).join();
+        studentService.getStudentByIdAsync(studentId).join();
+
+        verify(studentRepository, times(2)).findById(studentId);
+    }
+
+    @Test
+    void testGetStudentsByIdsAsync() {
+        Student cached = new Student();
+        cached.setId(1L);
+        Student stored = new Student();
+        stored.setId(2L);
+        when(valueOperations.multiGet(Arrays.asList("student:3", "student:2", "student:1")))
+                .thenReturn(Arrays.asList(null, null, cached));
+        when(studentRepository.findAllCachedById(Arrays.asList(3L, 2L))).thenReturn(List.of(stored));
+
+        List<Student> result = studentService.getStudentsByIdsAsync(Arrays.asList(3L, 2L, 1L)).join();
+
+        assertEquals(Arrays.asList(stored, cached), result);
+        verify(studentRepository, never()).findById(any());
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
     }
 
     @Test
@@ -127,6 +308,26 @@ class StudentServiceTest {
         assertEquals(savedStudent, result.join());
     }
 
+    @Test
+    void testSaveStudentsBatchAsync() {
+        StudentDto first = new StudentDto();
+        first.setName("Jane Doe");
+        first.setAge(20);
+        StudentDto second = new StudentDto();
+        second.setName("John Doe");
+        second.setAge(21);
+
+        when(studentRepository.insertAll(anyList(), eq(Constant.JDBC_BATCH_SIZE)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Student> result = studentService.saveStudentsBatchAsync(Arrays.asList(first, second)).join();
+
+        assertEquals(2, result.size());
+        assertEquals("John Doe", result.get(1).getName());
+        verify(studentRepository, times(1)).insertAll(anyList(), eq(Constant.JDBC_BATCH_SIZE));
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
     @Test
     void testUpdateStudentAsync_studentExist() {
         Long studentId = 1L;
@@ -136,14 +337,17 @@ class StudentServiceTest {
         Student updatedStudent = new Student();
         updatedStudent.setId(studentId);
         updatedStudent.setName("Updated Name");
+        updatedStudent.setVersion(1L);
 
-        when(studentRepository.existsById(studentId)).thenReturn(true);
-        when(studentRepository.save(any(Student.class))).thenReturn(updatedStudent);
+        when(studentRepository.updateById(eq(studentId), eq("Updated Name"), eq(0), any(LocalDateTime.class)))
+                .thenReturn(1);
+        when(studentRepository.findLatestById(studentId)).thenReturn(Optional.of(updatedStudent));
 
         CompletableFuture<Student> result = studentService.updateStudentAsync(studentId, studentToUpdate);
 
         assertNotNull(result);
         assertEquals(updatedStudent, result.join());
+        verify(studentRepository, never()).save(any(Student.class));
     }
 
     @Test
@@ -153,36 +357,80 @@ class StudentServiceTest {
         student.setId(studentId);
         student.setName("Non-Existent Student");
         student.setAge(22);
-        when(studentRepository.existsById(studentId)).thenReturn(false);
+        when(studentRepository.updateById(eq(studentId), any(), anyInt(), any())).thenReturn(0);
 
         CompletableFuture<Student> result = studentService.updateStudentAsync(studentId, student);
 
         assertNotNull(result);
         assertNull(result.join());
-        verify(studentRepository, times(1)).existsById(studentId);
-        verify(studentRepository, times(0)).save(any(Student.class));
+        verify(studentRepository, never()).findLatestById(studentId);
+        verify(studentRepository, never()).save(any(Student.class));
+    }
+
+    @Test
+    void testUpdateStudentAsync_matchingVersion() {
+        Long studentId = 1L;
+        Student student = new Student();
+        student.setName("Updated Name");
+        student.setAge(22);
+        when(studentRepository.updateByIdAndVersion(eq(studentId), eq(3L), eq("Updated Name"), eq(22), any()))
+                .thenReturn(1);
+
+        Student result = studentService.updateStudentAsync(studentId, student, 3L).join();
+
+        assertEquals(studentId, result.getId());
+        assertEquals(4L, result.getVersion());
+        verify(studentRepository, never()).findById(any());
+        verify(valueOperations, times(1)).set("student:1", result, Constant.REDIS_EXPIRY_TIME, TimeUnit.MINUTES);
+    }
+
+    @Test
+    void testUpdateStudentAsync_staleVersion() {
+        Long studentId = 1L;
+        when(studentRepository.updateByIdAndVersion(eq(studentId), eq(3L), any(), anyInt(), any())).thenReturn(0);
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> studentService.updateStudentAsync(studentId, new Student(), 3L).join());
+
+        assertInstanceOf(StudentVersionConflictException.class, ex.getCause());
+        verify(studentRepository, never()).findById(any());
+        verify(valueOperations, never()).set(any(), any(), anyLong(), any());
     }
 
     @Test
     void testDeleteStudentAsync_studentExists() {
         Long studentId = 1L;
 
-        when(studentRepository.existsById(studentId)).thenReturn(true);
+        when(studentRepository.removeById(studentId)).thenReturn(1);
 
         CompletableFuture<Boolean> result = studentService.deleteStudentAsync(studentId);
 
         assertNotNull(result);
         assertTrue(result.join());
-        verify(studentRepository, times(1)).deleteById(studentId);
+        verify(studentRepository, times(1)).removeById(studentId);
+        verify(valueOperations, times(1)).set("student:1", Constant.STUDENT_TOMBSTONE,
+                Constant.TOMBSTONE_EXPIRY_SECONDS, TimeUnit.SECONDS);
     }
     @Test
     void testDeleteStudentAsync_studentDoesNotExist() {
         Long studentId = 1L;
-        when(studentRepository.existsById(studentId)).thenReturn(false);
+        when(studentRepository.removeById(studentId)).thenReturn(0);
         CompletableFuture<Boolean> result = studentService.deleteStudentAsync(studentId);
         assertNotNull(result);
         assertFalse(result.join());
-        verify(studentRepository, times(1)).existsById(studentId);
-        verify(studentRepository, times(0)).deleteById(studentId);
+        verify(studentRepository, times(1)).removeById(studentId);
+        verify(valueOperations, never()).set(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void testDeleteStudentAsync_staleVersion() {
+        Long studentId = 1L;
+        when(studentRepository.removeByIdAndVersion(studentId, 3L)).thenReturn(0);
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> studentService.deleteStudentAsync(studentId, 3L).join());
+
+        assertInstanceOf(StudentVersionConflictException.class, ex.getCause());
+        verify(valueOperations, never()).set(any(), any(), anyLong(), any());
     }
 }
@@ -0,0 +1,97 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.dtos.StudentStatsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class StudentStatisticsTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    private StudentStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        statistics = new StudentStatistics(studentRepository);
+    }
+
+    @Test
+    void testSnapshotIsDerivedFromAgeCounters() {
+        statistics.added(20);
+        statistics.added(20);
+        statistics.added(30);
+        statistics.added(40);
+        statistics.updated(40, 50);
+        statistics.removed(30);
+        statistics.updated(null, 60);
+        statistics.removed(null);
+
+        StudentStatsDto stats = statistics.snapshot();
+
+        assertEquals(3, stats.getCount());
+        assertEquals(20, stats.getMinAge());
+        assertEquals(50, stats.getMaxAge());
+        assertEquals(30.0, stats.getMeanAge(), 1e-9);
+        assertEquals(Map.of(20, 2L, 50, 1L), stats.getAgeHistogram());
+        assertNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void testEmptySnapshot() {
+        StudentStatsDto stats = statistics.snapshot();
+
+        assertEquals(0, stats.getCount());
+        assertNull(stats.getMinAge());
+        assertNull(stats.getMeanAge());
+        assertTrue(stats.getAgeHistogram().isEmpty());
+    }
+
+    @Test
+    void testReconcileCorrectsDriftAndKeepsConcurrentChanges() {
+        statistics.added(20);
+        statistics.added(20);
+        statistics.added(99);
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            statistics.added(30);
+            return rows(new Object[]{20, 5L}, new Object[]{25, 1L});
+        });
+
+        statistics.reconcile();
+
+        StudentStatsDto stats = statistics.snapshot();
+        assertEquals(Map.of(20, 5L, 25, 1L, 30, 1L), stats.getAgeHistogram());
+        assertEquals(7, stats.getCount());
+        assertNotNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void testReconcileSkipsAgesWrittenDuringTheQuery() {
+        statistics.added(20);
+        statistics.added(20);
+        when(studentRepository.countByAge()).thenAnswer(invocation -> {
+            // committed before the query read the table, recorded while it ran
+            statistics.added(20);
+            return rows(new Object[]{20, 3L});
+        });
+
+        statistics.reconcile();
+
+        assertEquals(Map.of(20, 3L), statistics.snapshot().getAgeHistogram());
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
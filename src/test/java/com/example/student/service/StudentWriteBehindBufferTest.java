@@ -0,0 +1,125 @@
+package com.example.student.service;
+
+import com.example.student.Repository.StudentRepository;
+import com.example.student.entity.Student;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class StudentWriteBehindBufferTest {
+
+    @Mock
+    private StudentRepository studentRepository;
+
+    private StudentWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        buffer = new StudentWriteBehindBuffer(studentRepository, new DatabaseBulkhead(1), true, 2, 10, 60_000);
+        when(studentRepository.updateAll(anyList()))
+                .thenAnswer(invocation -> counts(((List<?>) invocation.getArgument(0)).size(), 1));
+    }
+
+    @Test
+    void testUpdatesAreCoalescedPerStudent() {
+        buffer.enqueue(student(1L, "First"));
+        buffer.enqueue(student(1L, "Second"));
+        buffer.enqueue(student(2L, "Other"));
+
+        assertEquals("Second", buffer.getPending(1L).getName());
+        assertEquals(2, buffer.flush());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Student>> batch = ArgumentCaptor.forClass(List.class);
+        verify(studentRepository, times(1)).updateAll(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertTrue(batch.getValue().stream().anyMatch(student -> "Second".equals(student.getName())));
+        assertNull(buffer.getPending(1L));
+    }
+
+    @Test
+    void testOlderVersionNeverReplacesANewerPendingUpdate() {
+        Student newer = student(1L, "Newer");
+        newer.setVersion(5L);
+        Student older = student(1L, "Older");
+        older.setVersion(4L);
+
+        buffer.enqueue(newer);
+        buffer.enqueue(older);
+
+        assertEquals("Newer", buffer.getPending(1L).getName());
+        buffer.enqueue(student(2L, "Other"));
+        assertEquals(2, buffer.flush());
+    }
+
+    @Test
+    void testFullBufferRejectsNewStudents() {
+        buffer.enqueue(student(1L, "First"));
+        buffer.enqueue(student(2L, "Second"));
+
+        assertThrows(RejectedExecutionException.class, () -> buffer.enqueue(student(3L, "Third")));
+        buffer.enqueue(student(2L, "Second again"));
+
+        buffer.flush();
+        buffer.enqueue(student(3L, "Third"));
+        assertEquals("Third", buffer.getPending(3L).getName());
+    }
+
+    @Test
+    void testFailedFlushKeepsUpdatesPending() {
+        when(studentRepository.updateAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        buffer.enqueue(student(1L, "First"));
+
+        assertThrows(IllegalStateException.class, () -> buffer.flush());
+        assertEquals("First", buffer.getPending(1L).getName());
+    }
+
+    @Test
+    void testDiscardFreesCapacity() {
+        buffer.enqueue(student(1L, "First"));
+        buffer.enqueue(student(2L, "Second"));
+        buffer.discard(1L);
+
+        buffer.enqueue(student(3L, "Third"));
+        assertNull(buffer.getPending(1L));
+        assertEquals(2, buffer.flush());
+    }
+
+    @Test
+    void testRejectedRowsAreReportedAsConflicts() {
+        when(studentRepository.updateAll(anyList())).thenReturn(counts(1, 0));
+        List<Student> conflicts = new ArrayList<>();
+        buffer.onConflict(conflicts::add);
+        buffer.enqueue(student(1L, "Stale"));
+
+        assertEquals(1, buffer.flush());
+        assertEquals(1, conflicts.size());
+        assertEquals("Stale", conflicts.get(0).getName());
+        assertNull(buffer.getPending(1L));
+    }
+
+    private static int[] counts(int size, int count) {
+        int[] counts = new int[size];
+        Arrays.fill(counts, count);
+        return counts;
+    }
+
+    private static Student student(Long id, String name) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName(name);
+        return student;
+    }
+}
@@ -0,0 +1,443 @@
+package com.example.student.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal in-process server speaking enough of the Redis RESP2 protocol for the application's
+ * Lettuce client: strings with expiry, MGET/MSET, DEL/EXISTS, TTL queries and pub/sub. It stands
+ * in for a real Redis in tests, benchmarks and load tests so they run offline.
+ */
+public class EmbeddedRedisServer implements Closeable {
+
+    private record Entry(byte[] value, long expiresAt) {
+        boolean expired(long now) {
+            return expiresAt > 0 && expiresAt <= now;
+        }
+    }
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ServerSocket serverSocket;
+
+    public EmbeddedRedisServer(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+        workers.execute(this::acceptLoop);
+    }
+
+    public static EmbeddedRedisServer start() throws IOException {
+        return new EmbeddedRedisServer(0);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void flushAll() {
+        data.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        workers.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                workers.execute(connection::serve);
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private byte[] get(String key) {
+        Entry entry = data.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expired(System.currentTimeMillis())) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private long pttl(String key) {
+        Entry entry = data.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null || entry.expired(now)) {
+            return -2;
+        }
+        return entry.expiresAt() == 0 ? -1 : entry.expiresAt() - now;
+    }
+
+    private int publish(String channel, byte[] message) {
+        int receivers = 0;
+        for (Connection connection : connections) {
+            receivers += connection.deliver(channel, message);
+        }
+        return receivers;
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private final Set<String> channels = new CopyOnWriteArraySet<>();
+        private final Map<String, Pattern> patterns = new ConcurrentHashMap<>();
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void serve() {
+            try {
+                while (true) {
+                    List<byte[]> command = readCommand();
+                    if (command == null) {
+                        break;
+                    }
+                    if (!command.isEmpty()) {
+                        // deliver outside our own lock so two publishers never wait on each other
+                        Integer receivers = isPublish(command) ? publish(text(command.get(1)), command.get(2)) : null;
+                        synchronized (out) {
+                            if (receivers != null) {
+                                writeInteger(receivers);
+                            } else {
+                                execute(command);
+                            }
+                            if (in.available() == 0) {
+                                out.flush();
+                            }
+                        }
+                    }
+                }
+            } catch (EOFException | SocketException ignored) {
+                // client went away
+            } catch (IOException ex) {
+                // treat any protocol error as a dropped connection
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+
+        int deliver(String channel, byte[] message) {
+            int delivered = 0;
+            try {
+                synchronized (out) {
+                    if (channels.contains(channel)) {
+                        writeArrayHeader(3);
+                        writeBulk("message");
+                        writeBulk(channel);
+                        writeBulk(message);
+                        delivered++;
+                    }
+                    for (Map.Entry<String, Pattern> pattern : patterns.entrySet()) {
+                        if (pattern.getValue().matcher(channel).matches()) {
+                            writeArrayHeader(4);
+                            writeBulk("pmessage");
+                            writeBulk(pattern.getKey());
+                            writeBulk(channel);
+                            writeBulk(message);
+                            delivered++;
+                        }
+                    }
+                    if (delivered > 0) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException ex) {
+                close();
+            }
+            return delivered;
+        }
+
+        private void execute(List<byte[]> command) throws IOException {
+            String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "PING" -> writeSimple("PONG");
+                case "AUTH", "CLIENT", "SELECT", "READONLY", "RESET" -> writeSimple("OK");
+                case "QUIT" -> {
+                    writeSimple("OK");
+                    out.flush();
+                    close();
+                }
+                case "INFO" -> writeBulk("# Server\r\nredis_version:7.0.0\r\nredis_mode:standalone\r\n");
+                case "GET" -> writeBulk(get(text(command.get(1))));
+                case "SET" -> set(command);
+                case "SETEX" -> {
+                    long seconds = Long.parseLong(text(command.get(2)));
+                    data.put(text(command.get(1)),
+                            new Entry(command.get(3), System.currentTimeMillis() + seconds * 1000));
+                    writeSimple("OK");
+                }
+                case "MGET" -> {
+                    writeArrayHeader(command.size() - 1);
+                    for (int i = 1; i < command.size(); i++) {
+                        writeBulk(get(text(command.get(i))));
+                    }
+                }
+                case "MSET" -> {
+                    for (int i = 1; i + 1 < command.size(); i += 2) {
+                        data.put(text(command.get(i)), new Entry(command.get(i + 1), 0));
+                    }
+                    writeSimple("OK");
+                }
+                case "DEL", "UNLINK" -> {
+                    long removed = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        String key = text(command.get(i));
+                        if (get(key) != null && data.remove(key) != null) {
+                            removed++;
+                        }
+                    }
+                    writeInteger(removed);
+                }
+                case "EXISTS" -> {
+                    long present = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        present += get(text(command.get(i))) != null ? 1 : 0;
+                    }
+                    writeInteger(present);
+                }
+                case "PTTL" -> writeInteger(pttl(text(command.get(1))));
+                case "TTL" -> {
+                    long pttl = pttl(text(command.get(1)));
+                    writeInteger(pttl < 0 ? pttl : (pttl + 999) / 1000);
+                }
+                case "EXPIRE", "PEXPIRE" -> {
+                    String key = text(command.get(1));
+                    long amount = Long.parseLong(text(command.get(2)));
+                    byte[] value = get(key);
+                    if (value == null) {
+                        writeInteger(0);
+                    } else {
+                        long millis = name.equals("EXPIRE") ? amount * 1000 : amount;
+                        data.put(key, new Entry(value, System.currentTimeMillis() + millis));
+                        writeInteger(1);
+                    }
+                }
+                case "FLUSHALL", "FLUSHDB" -> {
+                    data.clear();
+                    writeSimple("OK");
+                }
+                case "DBSIZE" -> writeInteger(data.size());
+                case "SUBSCRIBE" -> {
+                    for (int i = 1; i < command.size(); i++) {
+                        String channel = text(command.get(i));
+                        channels.add(channel);
+                        writeSubscription("subscribe", channel);
+                    }
+                }
+                case "UNSUBSCRIBE" -> {
+                    List<String> targets = command.size() > 1 ? texts(command) : new ArrayList<>(channels);
+                    for (String channel : targets) {
+                        channels.remove(channel);
+                        writeSubscription("unsubscribe", channel);
+                    }
+                }
+                case "PSUBSCRIBE" -> {
+                    for (int i = 1; i < command.size(); i++) {
+                        String pattern = text(command.get(i));
+                        patterns.put(pattern, globToRegex(pattern));
+                        writeSubscription("psubscribe", pattern);
+                    }
+                }
+                case "PUNSUBSCRIBE" -> {
+                    List<String> targets = command.size() > 1 ? texts(command) : new ArrayList<>(patterns.keySet());
+                    for (String pattern : targets) {
+                        patterns.remove(pattern);
+                        writeSubscription("punsubscribe", pattern);
+                    }
+                }
+                default -> writeError("ERR unknown command '" + name + "'");
+            }
+        }
+
+        private void set(List<byte[]> command) throws IOException {
+            String key = text(command.get(1));
+            long expiresAt = 0;
+            boolean onlyIfAbsent = false;
+            boolean onlyIfPresent = false;
+            boolean keepTtl = false;
+            for (int i = 3; i < command.size(); i++) {
+                String option = text(command.get(i)).toUpperCase(Locale.ROOT);
+                switch (option) {
+                    case "EX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(++i))) * 1000;
+                    case "PX" -> expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(++i)));
+                    case "NX" -> onlyIfAbsent = true;
+                    case "XX" -> onlyIfPresent = true;
+                    case "KEEPTTL" -> keepTtl = true;
+                    default -> {
+                        writeError("ERR syntax error");
+                        return;
+                    }
+                }
+            }
+            boolean present = get(key) != null;
+            if ((onlyIfAbsent && present) || (onlyIfPresent && !present)) {
+                writeBulk((byte[]) null);
+                return;
+            }
+            if (keepTtl && present) {
+                expiresAt = data.get(key).expiresAt();
+            }
+            data.put(key, new Entry(command.get(2), expiresAt));
+            writeSimple("OK");
+        }
+
+        private void writeSubscription(String kind, String channel) throws IOException {
+            writeArrayHeader(3);
+            writeBulk(kind);
+            writeBulk(channel);
+            writeInteger(channels.size() + patterns.size());
+        }
+
+        private List<byte[]> readCommand() throws IOException {
+            int first = in.read();
+            if (first == -1) {
+                return null;
+            }
+            if (first != '*') {
+                String inline = (char) first + readLine();
+                List<byte[]> parts = new ArrayList<>();
+                for (String part : inline.trim().split("\\s+")) {
+                    if (!part.isEmpty()) {
+                        parts.add(part.getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                return parts;
+            }
+            int count = Integer.parseInt(readLine());
+            List<byte[]> parts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Expected bulk string");
+                }
+                int length = Integer.parseInt(readLine());
+                byte[] bytes = in.readNBytes(length);
+                if (bytes.length != length) {
+                    throw new EOFException();
+                }
+                readLine();
+                parts.add(bytes);
+            }
+            return parts;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException();
+                }
+                line.write(b);
+            }
+            in.read();
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        private void writeSimple(String value) throws IOException {
+            out.write(('+' + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeError(String message) throws IOException {
+            out.write(('-' + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeInteger(long value) throws IOException {
+            out.write((":" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeArrayHeader(int size) throws IOException {
+            out.write(("*" + size + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBulk(String value) throws IOException {
+            writeBulk(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(value);
+            out.write('\r');
+            out.write('\n');
+        }
+    }
+
+    private static boolean isPublish(List<byte[]> command) {
+        return command.size() == 3 && text(command.get(0)).equalsIgnoreCase("PUBLISH");
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> texts(List<byte[]> command) {
+        List<String> values = new ArrayList<>();
+        for (int i = 1; i < command.size(); i++) {
+            values.add(text(command.get(i)));
+        }
+        return values;
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}